@@ -0,0 +1,84 @@
+package pl.edu.pw.mini.ingreedio.api.auth.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.edu.pw.mini.ingreedio.api.auth.security.JwtUserClaims;
+import pl.edu.pw.mini.ingreedio.api.auth.security.VerifiedJwt;
+
+/**
+ * Measures issuing an access token and the parsing and validation done for every
+ * authenticated request.
+ *
+ * <p>{@link #perClaimParsing()} reproduces the former validation, which built a new parser
+ * and verified the signature separately for each of the claims read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+    private static final String SECRET = "aW5ncmVlZGlvMTIzNDU2Nzg5MDEyMzQ1Njc4OTBpbmdyZWVkaW8=";
+
+    private JwtService jwtService;
+    private JwtUserClaims claims;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessTokenLifetime", 900000L);
+
+        claims = JwtUserClaims.builder()
+            .username("user")
+            .roles(Set.of("USER"))
+            .permissions(Set.of("GET_USER_INFO", "REMOVE_USER", "ADD_REVIEW", "LIKE_PRODUCT"))
+            .build();
+        token = jwtService.generateToken(claims);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(claims);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, claims);
+    }
+
+    @Benchmark
+    public VerifiedJwt verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public void perClaimParsing(Blackhole blackhole) {
+        // Subject, roles, permissions and expiration
+        for (int i = 0; i < 4; i++) {
+            Claims payload = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+            blackhole.consume(payload);
+        }
+    }
+}
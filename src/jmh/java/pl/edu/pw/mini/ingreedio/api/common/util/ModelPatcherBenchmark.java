@@ -0,0 +1,86 @@
+package pl.edu.pw.mini.ingreedio.api.common.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pl.edu.pw.mini.ingreedio.api.product.model.BrandDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+
+/**
+ * Measures patching a product, as done by the product update endpoint.
+ *
+ * <p>{@link #reflectivePatch()} is the former implementation, resolving and accessing the
+ * fields through reflection on every patch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelPatcherBenchmark {
+    private ModelPatcher<ProductDocument> modelPatcher;
+    private ProductDocument patch;
+
+    @Setup
+    public void setup() {
+        modelPatcher = new ModelPatcher<>();
+        patch = ProductDocument.builder()
+            .name("Patched name")
+            .brand(BrandDocument.builder().id(1L).name("Patched brand").build())
+            .shortDescription("Patched short description")
+            .volume("100 ml")
+            .build();
+    }
+
+    @Benchmark
+    public ProductDocument patchAndExcludeFields() {
+        return modelPatcher.patchAndExcludeFields(createTarget(), patch, Set.of("id"));
+    }
+
+    @Benchmark
+    public ProductDocument patchNestedFields() {
+        return modelPatcher.patchAndExcludeFields(createTarget(), patch, Set.of("id"),
+            Set.of("brand"));
+    }
+
+    @Benchmark
+    public ProductDocument reflectivePatch() {
+        ProductDocument target = createTarget();
+        for (Field field : patch.getClass().getDeclaredFields()) {
+            if (field.getName().equals("id")
+                    || Modifier.isStatic(field.getModifiers())
+                    || Modifier.isFinal(field.getModifiers())) {
+                continue;
+            }
+
+            field.setAccessible(true);
+            try {
+                Object newValue = field.get(patch);
+                if (newValue != null) {
+                    field.set(target, newValue);
+                }
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return target;
+    }
+
+    private static ProductDocument createTarget() {
+        return ProductDocument.builder()
+            .id(1L)
+            .name("Name")
+            .brand(BrandDocument.builder().id(2L).name("Brand").build())
+            .shortDescription("Short description")
+            .longDescription("Long description")
+            .rating(3)
+            .build();
+    }
+}
@@ -0,0 +1,110 @@
+package pl.edu.pw.mini.ingreedio.api.ingredient.service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the ingredients autocomplete queries on the ingredients imported by
+ * v0.5-data-import.sql.
+ *
+ * <p>Unlike the other benchmarks, it needs the database of the application, migrated up to
+ * the trigram index, e.g. the one started with the docker compose file. The connection is
+ * configured with the benchmark.datasource.url, .username and .password system properties.
+ *
+ * <p>{@link #stringMatchesQuery()} reproduces the former query, which called the
+ * string_matches_query function for every row in both the filter and the ordering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IngredientSearchBenchmark {
+    private static final int COUNT = 10;
+
+    private static final String STRING_MATCHES_QUERY = """
+            SELECT i.* FROM ingredients i
+            WHERE string_matches_query(i.name, ?) > 0
+            ORDER BY string_matches_query(i.name, ?) DESC, i.name
+            LIMIT ?
+        """;
+
+    private static final String TRIGRAM_INDEX_QUERY = """
+            SELECT i.* FROM ingredients i
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS matches FROM unnest(?) AS q(token)
+                WHERE i.name LIKE q.token || '%' OR i.name LIKE '% ' || q.token || '%'
+            ) m
+            WHERE i.name ~ ?
+            ORDER BY m.matches DESC, i.name
+            LIMIT ?
+        """;
+
+    @Param({"A", "GLY", "SODIUM LAU", "AQUA GLYCERIN PARFUM"})
+    private String queryString;
+
+    private Connection connection;
+    private PreparedStatement stringMatchesStatement;
+    private PreparedStatement trigramIndexStatement;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+            System.getProperty("benchmark.datasource.url",
+                "jdbc:postgresql://localhost:5432/ingreedio"),
+            System.getProperty("benchmark.datasource.username", "io2dzogs"),
+            System.getProperty("benchmark.datasource.password", "io2dzogs"));
+
+        String[] query = queryString.split("\\s+");
+        Array queryArray = connection.createArrayOf("text", query);
+
+        stringMatchesStatement = connection.prepareStatement(STRING_MATCHES_QUERY);
+        stringMatchesStatement.setArray(1, queryArray);
+        stringMatchesStatement.setArray(2, queryArray);
+        stringMatchesStatement.setInt(3, COUNT);
+
+        trigramIndexStatement = connection.prepareStatement(TRIGRAM_INDEX_QUERY);
+        trigramIndexStatement.setArray(1, queryArray);
+        trigramIndexStatement.setString(2, IngredientService.getQueryPattern(query));
+        trigramIndexStatement.setInt(3, COUNT);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<String> stringMatchesQuery() throws SQLException {
+        return execute(stringMatchesStatement);
+    }
+
+    @Benchmark
+    public List<String> trigramIndex() throws SQLException {
+        return execute(trigramIndexStatement);
+    }
+
+    private static List<String> execute(PreparedStatement statement) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString("name"));
+            }
+        }
+        return names;
+    }
+}
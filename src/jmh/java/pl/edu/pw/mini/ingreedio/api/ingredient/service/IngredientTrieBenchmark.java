@@ -0,0 +1,70 @@
+package pl.edu.pw.mini.ingreedio.api.ingredient.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pl.edu.pw.mini.ingreedio.api.ingredient.service.IngredientTrie.IngredientMatch;
+
+/**
+ * Measures the in-memory ingredients autocomplete on the ingredients imported by
+ * v0.5-data-import.sql, with the same queries as {@link IngredientSearchBenchmark}.
+ *
+ * <p>The names are read from the changelog itself, so no database is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IngredientTrieBenchmark {
+    private static final int COUNT = 10;
+    private static final String DATA_IMPORT = "/db/changelog/data/v0.5-data-import.sql";
+    private static final Pattern INGREDIENT_VALUE = Pattern.compile("^\\('((?:[^']|'')*)'\\)");
+
+    @Param({"A", "GLY", "SODIUM LAU", "AQUA GLYCERIN PARFUM"})
+    private String queryString;
+
+    private IngredientTrie trie;
+    private String[] query;
+
+    @Setup
+    public void setup() throws IOException {
+        trie = new IngredientTrie();
+        try (InputStream inputStream = getClass().getResourceAsStream(DATA_IMPORT);
+             BufferedReader reader = new BufferedReader(
+                 new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            long id = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                Matcher matcher = INGREDIENT_VALUE.matcher(line);
+                if (matcher.find()) {
+                    trie.add(++id, matcher.group(1).replace("''", "'"));
+                }
+            }
+        }
+
+        query = queryString.split("\\s+");
+    }
+
+    @Benchmark
+    public List<String> trie() {
+        return trie.match(query).stream()
+            .sorted(Comparator.comparingInt(IngredientMatch::matches).reversed()
+                .thenComparing(IngredientMatch::name))
+            .limit(COUNT)
+            .map(IngredientMatch::name)
+            .toList();
+    }
+}
@@ -0,0 +1,82 @@
+package pl.edu.pw.mini.ingreedio.api.product.mapper;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pl.edu.pw.mini.ingreedio.api.product.dto.ProductDto;
+import pl.edu.pw.mini.ingreedio.api.product.dto.ProductViewDto;
+import pl.edu.pw.mini.ingreedio.api.product.model.BrandDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.CategoryDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.IngredientDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProviderDocument;
+
+/**
+ * Measures the mappings done by the product endpoints: a search results page
+ * (ProductDocument to ProductViewDto) and the product details (ProductDocument to ProductDto).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductMappingBenchmark {
+    private static final int PAGE_SIZE = 16;
+
+    private ProductDtoMapper productDtoMapper;
+    private ProductDocument product;
+    private List<ProductDocument> page;
+
+    @Setup
+    public void setup() {
+        productDtoMapper = new ProductDtoMapper();
+
+        product = createProduct(1L);
+        page = LongStream.rangeClosed(1, PAGE_SIZE)
+            .mapToObj(this::createProduct)
+            .toList();
+    }
+
+    @Benchmark
+    public List<ProductViewDto> productViewDtosPage() {
+        return page.stream()
+            .map(pageProduct -> productDtoMapper.toViewDto(pageProduct, false))
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ProductDto productDto() {
+        return productDtoMapper.apply(product, false);
+    }
+
+    private ProductDocument createProduct(long id) {
+        return ProductDocument.builder()
+            .id(id)
+            .name("Product " + id)
+            .smallImageUrl("https://example.com/small/" + id + ".png")
+            .largeImageUrl("https://example.com/large/" + id + ".png")
+            .provider(ProviderDocument.builder().id(1L).name("Provider").build())
+            .brand(BrandDocument.builder().id(2L).name("Brand").build())
+            .categories(Set.of(
+                CategoryDocument.builder().id(1L).name("Category 1").build(),
+                CategoryDocument.builder().id(2L).name("Category 2").build()))
+            .shortDescription("Short description of product " + id)
+            .longDescription("Long description of product " + id)
+            .volume("200 ml")
+            .ingredients(LongStream.rangeClosed(1, 30)
+                .mapToObj(ingredientId -> IngredientDocument.builder()
+                    .id(ingredientId)
+                    .name("Ingredient " + ingredientId)
+                    .build())
+                .collect(Collectors.toSet()))
+            .rating(4)
+            .build();
+    }
+}
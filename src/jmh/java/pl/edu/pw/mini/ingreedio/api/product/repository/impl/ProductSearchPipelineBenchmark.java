@@ -0,0 +1,96 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductCriteria;
+import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductSortingCriteria;
+import pl.edu.pw.mini.ingreedio.api.product.criteria.SortingBy;
+
+/**
+ * Measures building and rendering the products search pipeline (as run by the two-query
+ * strategy), including the phrase regular expression and the match score query formatting.
+ * No database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductSearchPipelineBenchmark {
+    @Param({"REGEX", "TEXT"})
+    private ProductPhraseEngine phraseEngine;
+
+    private CustomizedProductRepositoryImpl repository;
+    private ProductCriteria filteringCriteria;
+    private ProductCriteria phraseCriteria;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setup() {
+        repository = new CustomizedProductRepositoryImpl(null);
+        ReflectionTestUtils.setField(repository, "createMatchScoreQueryResource",
+            new ClassPathResource("mongodb/query/create-match-score.json"));
+        ReflectionTestUtils.setField(repository, "createTextMatchScoreQueryResource",
+            new ClassPathResource("mongodb/query/create-text-match-score.json"));
+        ReflectionTestUtils.setField(repository, "phraseEngine", phraseEngine);
+
+        filteringCriteria = ProductCriteria.builder()
+            .ingredientsIdsToInclude(Set.of(1L, 2L, 3L))
+            .ingredientsIdsToExclude(Set.of(4L, 5L))
+            .brandsIdsToInclude(Set.of(1L, 2L))
+            .categoriesIds(Set.of(7L))
+            .minRating(3)
+            .sortingCriteria(List.of(
+                new ProductSortingCriteria(Sort.Direction.DESC, SortingBy.RATING)))
+            .hasMatchScoreSortCriteria(false)
+            .userId(1L)
+            .build();
+
+        phraseCriteria = ProductCriteria.builder()
+            .phraseKeywords(Set.of("krem", "do", "twarzy", "nivea"))
+            .sortingCriteria(List.of(
+                new ProductSortingCriteria(Sort.Direction.DESC, SortingBy.MATCH_SCORE),
+                new ProductSortingCriteria(Sort.Direction.DESC, SortingBy.RATING)))
+            .hasMatchScoreSortCriteria(true)
+            .userId(1L)
+            .build();
+
+        pageRequest = PageRequest.of(3, 16);
+    }
+
+    @Benchmark
+    public List<Document> filteringPipeline() {
+        return buildPipeline(filteringCriteria);
+    }
+
+    @Benchmark
+    public List<Document> phrasePipeline() {
+        return buildPipeline(phraseCriteria);
+    }
+
+    private List<Document> buildPipeline(ProductCriteria criteria) {
+        List<AggregationOperation> operations =
+            new ArrayList<>(repository.getFilteringOperations(criteria));
+        operations.addAll(repository.getSortingOperations(criteria));
+        operations.addAll(repository.getPaginationOperations(pageRequest));
+        operations.addAll(CustomizedProductRepositoryImpl.getListViewOperations(criteria));
+
+        return Aggregation.newAggregation(operations)
+            .toPipeline(Aggregation.DEFAULT_CONTEXT);
+    }
+}
@@ -0,0 +1,92 @@
+package pl.edu.pw.mini.ingreedio.api.review.mapper;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import pl.edu.pw.mini.ingreedio.api.review.dto.ReviewDto;
+import pl.edu.pw.mini.ingreedio.api.review.repository.ProductReviewView;
+import pl.edu.pw.mini.ingreedio.api.user.model.User;
+
+/**
+ * Measures mapping a page of the reviews of a product, with and without the current user's
+ * flags.
+ *
+ * <p>The reviews are projections backed by maps, the same as the rows of the native query
+ * listing the reviews.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReviewDtoMapperBenchmark {
+    private static final int REVIEWS_COUNT = 50;
+
+    private ReviewDtoMapper reviewDtoMapper;
+    private List<ProductReviewView> reviews;
+    private List<ProductReviewView> currentUserReviews;
+    private User currentUser;
+
+    @Setup
+    public void setup() {
+        reviewDtoMapper = new ReviewDtoMapper();
+        currentUser = User.builder()
+            .id(1L)
+            .email("user1@example.com")
+            .displayName("User 1")
+            .build();
+
+        ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        reviews = LongStream.rangeClosed(1, REVIEWS_COUNT)
+            .mapToObj(id -> projectionFactory.createProjection(ProductReviewView.class,
+                createRow(id, false)))
+            .toList();
+        currentUserReviews = LongStream.rangeClosed(1, REVIEWS_COUNT)
+            .mapToObj(id -> projectionFactory.createProjection(ProductReviewView.class,
+                createRow(id, true)))
+            .toList();
+    }
+
+    @Benchmark
+    public List<ReviewDto> reviewDtos() {
+        return reviews.stream()
+            .map(reviewDtoMapper::apply)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ReviewDto> currentUserReviewDtos() {
+        return currentUserReviews.stream()
+            .map(review -> reviewDtoMapper.apply(review, currentUser))
+            .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> createRow(long id, boolean withVotes) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("reviewId", id);
+        row.put("userId", id);
+        row.put("displayName", "User " + id);
+        row.put("productId", 1L);
+        row.put("rating", (int) (id % 10));
+        row.put("content", "Review content " + id);
+        row.put("createdAt", new Timestamp(System.currentTimeMillis()));
+        row.put("likesCount", (int) (id % 20));
+        row.put("dislikesCount", (int) (id % 7));
+        if (withVotes) {
+            row.put("isLiked", id % 3 == 0);
+            row.put("isDisliked", id % 3 == 1);
+        }
+        return row;
+    }
+}
@@ -16,10 +16,8 @@ import org.springframework.web.bind.annotation.RestController;
 import pl.edu.pw.mini.ingreedio.api.auth.dto.AuthRequestDto;
 import pl.edu.pw.mini.ingreedio.api.auth.dto.JwtAuthTokensDto;
 import pl.edu.pw.mini.ingreedio.api.auth.dto.RefreshTokenRequestDto;
-import pl.edu.pw.mini.ingreedio.api.auth.model.RefreshToken;
 import pl.edu.pw.mini.ingreedio.api.auth.security.JwtAuthTokens;
 import pl.edu.pw.mini.ingreedio.api.auth.service.AuthService;
-import pl.edu.pw.mini.ingreedio.api.auth.service.RefreshTokenService;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -27,7 +25,6 @@ import pl.edu.pw.mini.ingreedio.api.auth.service.RefreshTokenService;
 @Tag(name = "Authentication")
 public class AuthController {
     private final AuthService authService;
-    private final RefreshTokenService refreshTokenService;
 
     private final ModelMapper mapper;
 
@@ -59,8 +56,7 @@ public class AuthController {
     @PostMapping("/refresh-token")
     public ResponseEntity<JwtAuthTokensDto> refreshToken(
         @RequestBody RefreshTokenRequestDto request) {
-        RefreshToken token = refreshTokenService.getToken(request.refreshToken());
-        JwtAuthTokens newTokens = authService.refresh(token);
+        JwtAuthTokens newTokens = authService.refresh(request.refreshToken());
         return ResponseEntity.ok(mapper.map(newTokens, JwtAuthTokensDto.class));
     }
 }
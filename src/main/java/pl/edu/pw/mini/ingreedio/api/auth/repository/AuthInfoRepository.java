@@ -1,6 +1,7 @@
 package pl.edu.pw.mini.ingreedio.api.auth.repository;
 
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import pl.edu.pw.mini.ingreedio.api.auth.model.AuthInfo;
@@ -8,4 +9,7 @@ import pl.edu.pw.mini.ingreedio.api.auth.model.AuthInfo;
 @Repository
 public interface AuthInfoRepository extends JpaRepository<AuthInfo, Long> {
     Optional<AuthInfo> findByUsername(String username);
+
+    @EntityGraph(attributePaths = {"user", "roles", "roles.permissions"})
+    Optional<AuthInfo> findWithRolesById(long id);
 }
@@ -1,15 +1,30 @@
 package pl.edu.pw.mini.ingreedio.api.auth.repository;
 
 import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.auth.model.RefreshToken;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByToken(String token);
 
-    List<RefreshToken> findAllByExpirationDateBefore(Instant expiration);
+    // Replaces the token only if it is still valid, so that a token can be rotated only once
+    @Query(value = "WITH rotated AS (UPDATE refresh_token "
+        + "SET token = :newToken, expiration_date = :newExpirationDate "
+        + "WHERE token = :token AND expiration_date >= :now RETURNING id, auth_id) "
+        + "SELECT id, auth_id AS \"authId\" FROM rotated", nativeQuery = true)
+    Optional<RotatedRefreshToken> rotateToken(String token, String newToken,
+                                              Instant newExpirationDate, Instant now);
+
+    // PostgreSQL does not support DELETE ... LIMIT, hence the subquery
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_token WHERE id IN (SELECT id FROM refresh_token "
+        + "WHERE expiration_date < :expiration LIMIT :batchSize)", nativeQuery = true)
+    int deleteExpiredBatch(Instant expiration, int batchSize);
 }
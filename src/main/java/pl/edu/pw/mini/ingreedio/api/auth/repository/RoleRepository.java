@@ -1,8 +1,10 @@
 package pl.edu.pw.mini.ingreedio.api.auth.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import pl.edu.pw.mini.ingreedio.api.auth.model.Role;
 
@@ -11,4 +13,7 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByName(String name);
 
     Set<Role> findAllByNameIn(Set<String> names);
+
+    @Query("SELECT DISTINCT r FROM Role r LEFT JOIN FETCH r.permissions")
+    List<Role> findAllWithPermissions();
 }
@@ -0,0 +1,7 @@
+package pl.edu.pw.mini.ingreedio.api.auth.repository;
+
+public interface RotatedRefreshToken {
+    Long getId();
+
+    Long getAuthId();
+}
@@ -6,7 +6,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,8 +18,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import pl.edu.pw.mini.ingreedio.api.auth.model.AuthInfo;
+import pl.edu.pw.mini.ingreedio.api.auth.security.VerifiedTokenCache.VerifiedToken;
 import pl.edu.pw.mini.ingreedio.api.auth.service.JwtClaimsService;
 import pl.edu.pw.mini.ingreedio.api.auth.service.JwtService;
+import pl.edu.pw.mini.ingreedio.api.auth.service.RoleAuthoritiesService;
+import pl.edu.pw.mini.ingreedio.api.auth.service.TokenRevocationService;
 
 @Component
 @RequiredArgsConstructor
@@ -26,6 +31,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
     private final JwtClaimsService jwtClaimsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RoleAuthoritiesService roleAuthoritiesService;
+
+    // If enabled, the authentication is built from the verified token claims only,
+    // without loading the user from the database
+    @Value("${security.stateless-authentication:false}")
+    private boolean statelessAuthentication;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -39,23 +52,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        final String username;
-        try {
-            username = jwtService.extractUsername(jwt);
-        } catch (JwtException ignore) {
-            filterChain.doFilter(request, response);
-            return;
-        }
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            Optional<VerifiedToken> verifiedToken = verifiedTokenCache.get(jwt)
+                .or(() -> verifyToken(jwt));
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails details = userDetailsService.loadUserByUsername(username);
-            JwtUserClaims claims = jwtClaimsService.getJwtUserClaimsByAuthInfo((AuthInfo) details);
-            if (jwtService.isTokenValid(jwt, claims)) {
+            if (verifiedToken.isPresent()
+                && !tokenRevocationService.isRevoked(verifiedToken.get().claims())) {
                 UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(details, null,
-                        details.getAuthorities()
-                    );
-
+                    new UsernamePasswordAuthenticationToken(verifiedToken.get().principal(), null,
+                        verifiedToken.get().authorities());
                 authToken.setDetails(
                     new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -65,4 +70,47 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Verifies the token and resolves its authentication, caching it until the token expires
+    private Optional<VerifiedToken> verifyToken(String jwt) {
+        final VerifiedJwt verifiedJwt;
+        try {
+            verifiedJwt = jwtService.verify(jwt);
+        } catch (JwtException ignore) {
+            return Optional.empty();
+        }
+
+        JwtUserClaims tokenClaims = verifiedJwt.claims();
+        if (tokenClaims.username() == null) {
+            return Optional.empty();
+        }
+
+        // Tokens issued without the user id are authenticated using the database
+        Optional<VerifiedToken> verifiedToken =
+            statelessAuthentication && tokenClaims.userId() != null
+                ? Optional.of(new VerifiedToken(tokenClaims, tokenClaims,
+                    roleAuthoritiesService.getAuthorities(tokenClaims.roles()),
+                    verifiedJwt.expiresAt()))
+                : getAuthenticationFromDatabase(verifiedJwt);
+
+        verifiedToken.ifPresent(token -> verifiedTokenCache.put(jwt, token));
+        return verifiedToken;
+    }
+
+    private Optional<VerifiedToken> getAuthenticationFromDatabase(VerifiedJwt verifiedJwt) {
+        JwtUserClaims tokenClaims = verifiedJwt.claims();
+        UserDetails details = userDetailsService.loadUserByUsername(tokenClaims.username());
+        JwtUserClaims claims = jwtClaimsService.getJwtUserClaimsByAuthInfo((AuthInfo) details);
+
+        // The token has been verified already (including its expiration),
+        // so only the claims are compared with the current ones
+        if (!tokenClaims.username().equals(claims.username())
+            || !tokenClaims.roles().equals(claims.roles())
+            || !tokenClaims.permissions().equals(claims.permissions())) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new VerifiedToken(tokenClaims, details,
+            roleAuthoritiesService.getAuthorities(claims.roles()), verifiedJwt.expiresAt()));
+    }
 }
@@ -2,11 +2,18 @@ package pl.edu.pw.mini.ingreedio.api.auth.security;
 
 import java.util.Set;
 import lombok.Builder;
+import org.springframework.security.core.AuthenticatedPrincipal;
 
 @Builder
 public record JwtUserClaims(
     String username,
     Set<String> roles,
-    Set<String> permissions
-) {
-}
\ No newline at end of file
+    Set<String> permissions,
+    Long userId,
+    Long revocationVersion
+) implements AuthenticatedPrincipal {
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -1,19 +1,44 @@
 package pl.edu.pw.mini.ingreedio.api.auth.security;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import pl.edu.pw.mini.ingreedio.api.auth.repository.RefreshTokenRepository;
 
 @Component
-@RequiredArgsConstructor
 public class TokenJanitor {
     private final RefreshTokenRepository refreshTokenRepository;
+    private final Counter deletedTokensCounter;
+    private final Timer cleanupTimer;
 
-    @Scheduled(cron = "0 0 * * * *")
+    @Value("${security.refresh-token-cleanup.batch-size}")
+    private int batchSize;
+
+    public TokenJanitor(RefreshTokenRepository refreshTokenRepository,
+                        MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.deletedTokensCounter = Counter.builder("refresh.tokens.cleanup.deleted")
+            .description("Expired refresh tokens deleted by the janitor")
+            .register(meterRegistry);
+        this.cleanupTimer = Timer.builder("refresh.tokens.cleanup")
+            .description("Duration of the expired refresh tokens cleanup")
+            .register(meterRegistry);
+    }
+
+    // Every batch is deleted in its own transaction, so the locks are held briefly
+    @Scheduled(cron = "${security.refresh-token-cleanup.cron}")
     public void clearOldTokens() {
-        refreshTokenRepository.deleteAll(
-            refreshTokenRepository.findAllByExpirationDateBefore(Instant.now()));
+        cleanupTimer.record(() -> {
+            Instant now = Instant.now();
+            int deleted;
+            do {
+                deleted = refreshTokenRepository.deleteExpiredBatch(now, batchSize);
+                deletedTokensCounter.increment(deleted);
+            } while (deleted == batchSize);
+        });
     }
 }
@@ -0,0 +1,9 @@
+package pl.edu.pw.mini.ingreedio.api.auth.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of an access token whose signature and expiration have been verified.
+ */
+public record VerifiedJwt(JwtUserClaims claims, Instant expiresAt) {
+}
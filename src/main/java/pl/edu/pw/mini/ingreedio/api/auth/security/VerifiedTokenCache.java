@@ -0,0 +1,94 @@
+package pl.edu.pw.mini.ingreedio.api.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the access tokens that have already been verified, along with the authentication
+ * resolved for them. The tokens are kept under their SHA-256 digest until they expire.
+ *
+ * <p>The entries of a user are invalidated when their roles change, and all the entries are
+ * invalidated when the permissions of a role change.
+ */
+@Component
+public class VerifiedTokenCache {
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${cache.verified-tokens.maximum-size}") long maximumSize) {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new TokenExpiry())
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-tokens");
+    }
+
+    public Optional<VerifiedToken> get(String token) {
+        return Optional.ofNullable(cache.getIfPresent(digest(token)));
+    }
+
+    public void put(String token, VerifiedToken verifiedToken) {
+        cache.put(digest(token), verifiedToken);
+    }
+
+    public void invalidateUser(String username) {
+        cache.asMap().values()
+            .removeIf(verifiedToken -> verifiedToken.claims().username().equals(username));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of()
+                .formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record VerifiedToken(JwtUserClaims claims,
+                                Object principal,
+                                Collection<? extends GrantedAuthority> authorities,
+                                Instant expiresAt) {
+    }
+
+    // Every entry lives until the expiration of its token
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
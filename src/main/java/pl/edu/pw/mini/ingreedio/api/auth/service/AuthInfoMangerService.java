@@ -30,6 +30,13 @@ public class AuthInfoMangerService {
             .orElseThrow(() -> new UsernameNotFoundException("User '" + username + "' not found!"));
     }
 
+    // Loads the roles with their permissions along with the AuthInfo
+    @Transactional(readOnly = true)
+    public AuthInfo getByIdWithRoles(long id) throws UsernameNotFoundException {
+        return authInfoRepository.findWithRolesById(id)
+            .orElseThrow(() -> new UsernameNotFoundException("User with id " + id + " not found!"));
+    }
+
     @Transactional(readOnly = true)
     public AuthInfo getByUsername(String username, boolean roles) throws UsernameNotFoundException {
         var authInfo = this.getByUsername(username);
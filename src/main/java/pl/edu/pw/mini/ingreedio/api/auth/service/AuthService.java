@@ -10,6 +10,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.zalando.problem.Problem;
 import org.zalando.problem.Status;
 import org.zalando.problem.ThrowableProblem;
@@ -19,6 +21,7 @@ import pl.edu.pw.mini.ingreedio.api.auth.model.RefreshToken;
 import pl.edu.pw.mini.ingreedio.api.auth.model.Role;
 import pl.edu.pw.mini.ingreedio.api.auth.repository.AuthInfoRepository;
 import pl.edu.pw.mini.ingreedio.api.auth.security.JwtAuthTokens;
+import pl.edu.pw.mini.ingreedio.api.auth.security.VerifiedTokenCache;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
 
 @Service
@@ -32,6 +35,8 @@ public class AuthService {
     private final RefreshTokenService refreshTokenService;
     private final JwtClaimsService jwtClaimsService;
     private final RoleService roleService;
+    private final TokenRevocationService tokenRevocationService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Transactional
     public AuthInfo register(String username, String password, User user)
@@ -47,12 +52,11 @@ public class AuthService {
     }
 
     @Transactional
-    public JwtAuthTokens refresh(RefreshToken token) {
-        AuthInfo authInfo = token.getAuthInfo();
+    public JwtAuthTokens refresh(String token) throws ThrowableProblem {
+        RefreshToken refreshToken = refreshTokenService.rotateToken(token);
 
         String jwtToken = jwtService.generateToken(jwtClaimsService
-            .getJwtUserClaimsByAuthInfo(authInfo));
-        RefreshToken refreshToken = refreshTokenService.refreshToken(token);
+            .getJwtUserClaimsByAuthInfo(refreshToken.getAuthInfo()));
         return JwtAuthTokens.builder().accessToken(jwtToken).refreshToken(refreshToken).build();
     }
 
@@ -79,6 +83,26 @@ public class AuthService {
     public void grantRole(AuthInfo userAuthInfo, Role role) {
         userAuthInfo.getRoles().add(role);
         authInfoMangerService.save(userAuthInfo);
+
+        // The access tokens issued before carry the previous roles. A token refreshed before
+        // the commit would carry them too, at the new version, so the tokens are revoked once
+        // more after the commit
+        String username = userAuthInfo.getUsername();
+        revokeTokens(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        revokeTokens(username);
+                    }
+                });
+        }
+    }
+
+    private void revokeTokens(String username) {
+        tokenRevocationService.revokeTokens(username);
+        verifiedTokenCache.invalidateUser(username);
     }
 
     /**
@@ -1,19 +1,32 @@
 package pl.edu.pw.mini.ingreedio.api.auth.service;
 
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.auth.model.AuthInfo;
+import pl.edu.pw.mini.ingreedio.api.auth.model.Permission;
+import pl.edu.pw.mini.ingreedio.api.auth.model.Role;
 import pl.edu.pw.mini.ingreedio.api.auth.security.JwtUserClaims;
 
 @Service
 @RequiredArgsConstructor
 public class JwtClaimsService {
-    private final ModelMapper modelMapper;
+    private final TokenRevocationService tokenRevocationService;
 
     @Transactional(readOnly = true)
     public JwtUserClaims getJwtUserClaimsByAuthInfo(AuthInfo authInfo) {
-        return modelMapper.map(authInfo, JwtUserClaims.class);
+        return JwtUserClaims.builder()
+            .username(authInfo.getUsername())
+            .roles(authInfo.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toUnmodifiableSet()))
+            .permissions(authInfo.getRoles().stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .map(Permission::getName)
+                .collect(Collectors.toUnmodifiableSet()))
+            .userId(authInfo.getUser() == null ? null : authInfo.getUser().getId())
+            .revocationVersion(tokenRevocationService.getVersion())
+            .build();
     }
 }
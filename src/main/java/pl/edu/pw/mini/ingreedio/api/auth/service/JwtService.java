@@ -1,6 +1,7 @@
 package pl.edu.pw.mini.ingreedio.api.auth.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -16,16 +17,26 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import pl.edu.pw.mini.ingreedio.api.auth.security.JwtUserClaims;
+import pl.edu.pw.mini.ingreedio.api.auth.security.VerifiedJwt;
 
 @Service
 @RequiredArgsConstructor
 public class JwtService {
+    private static final String ROLES_CLAIM = "roles";
+    private static final String PERMISSIONS_CLAIM = "permissions";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String REVOCATION_VERSION_CLAIM = "rv";
+
     @Value("${security.access-token-lifetime}")
     private long accessTokenLifetime;
 
     @Value("${security.secret}")
     public String secret;
 
+    private volatile SecretKey signKey;
+
+    private volatile JwtParser parser;
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -36,20 +47,49 @@ public class JwtService {
 
     public Set<String> extractRoles(String token) {
         Collection<?> roles =
-            extractClaim(token, claims -> claims.get("roles", Collection.class));
+            extractClaim(token, claims -> claims.get(ROLES_CLAIM, Collection.class));
 
         return roles.stream()
             .map(Object::toString)
-            .collect(Collectors.toSet());
+            .collect(Collectors.toUnmodifiableSet());
     }
 
     public Set<String> extractPermissions(String token) {
         Collection<?> permissions =
-            extractClaim(token, claims -> claims.get("permissions", Collection.class));
+            extractClaim(token, claims -> claims.get(PERMISSIONS_CLAIM, Collection.class));
 
         return permissions.stream()
             .map(Object::toString)
-            .collect(Collectors.toSet());
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Verifies the signature and the expiration of the token and reads all its claims at once.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered or expired
+     */
+    public VerifiedJwt verify(String token) {
+        Claims claims = extractAllClaims(token);
+
+        JwtUserClaims userClaims = JwtUserClaims.builder()
+            .username(claims.getSubject())
+            .roles(toStringSet(claims.get(ROLES_CLAIM, Collection.class)))
+            .permissions(toStringSet(claims.get(PERMISSIONS_CLAIM, Collection.class)))
+            .userId(claims.get(USER_ID_CLAIM, Long.class))
+            .revocationVersion(claims.get(REVOCATION_VERSION_CLAIM, Long.class))
+            .build();
+
+        return new VerifiedJwt(userClaims, claims.getExpiration().toInstant());
+    }
+
+    private Set<String> toStringSet(Collection<?> values) {
+        if (values == null) {
+            return Set.of();
+        }
+
+        return values.stream()
+            .map(Object::toString)
+            .collect(Collectors.toUnmodifiableSet());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -58,28 +98,28 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().verifyWith(getSignKey()).build().parseSignedClaims(token).getPayload();
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return getParser().parseSignedClaims(token).getPayload();
     }
 
     public boolean isTokenValid(String token, JwtUserClaims expectedJwtUserClaims) {
-        final String username = extractUsername(token);
-        final Set<String> roles = extractRoles(token);
-        final Set<String> permissions = extractPermissions(token);
-
-        return (username.equals(expectedJwtUserClaims.username())
-                && roles.equals(expectedJwtUserClaims.roles())
-                && permissions.equals(expectedJwtUserClaims.permissions())
-                && !isTokenExpired(token));
+        // The parser rejects expired tokens, so the expiration is verified as well
+        final JwtUserClaims claims = verify(token).claims();
+
+        return (claims.username().equals(expectedJwtUserClaims.username())
+                && claims.roles().equals(expectedJwtUserClaims.roles())
+                && claims.permissions().equals(expectedJwtUserClaims.permissions()));
     }
 
     public String generateToken(JwtUserClaims jwtUserClaimsDto) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", jwtUserClaimsDto.roles());
-        claims.put("permissions", jwtUserClaimsDto.permissions());
+        claims.put(ROLES_CLAIM, jwtUserClaimsDto.roles());
+        claims.put(PERMISSIONS_CLAIM, jwtUserClaimsDto.permissions());
+        if (jwtUserClaimsDto.userId() != null) {
+            claims.put(USER_ID_CLAIM, jwtUserClaimsDto.userId());
+        }
+        if (jwtUserClaimsDto.revocationVersion() != null) {
+            claims.put(REVOCATION_VERSION_CLAIM, jwtUserClaimsDto.revocationVersion());
+        }
         return createToken(claims, jwtUserClaimsDto.username());
     }
 
@@ -93,8 +133,26 @@ public class JwtService {
             .compact();
     }
 
+    // The key and the parser are immutable and thread-safe, so they are built once and reused.
+    // Building them concurrently more than once is harmless.
     private SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey key = signKey;
+        if (key == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(secret);
+            key = Keys.hmacShaKeyFor(keyBytes);
+            signKey = key;
+        }
+
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser jwtParser = parser;
+        if (jwtParser == null) {
+            jwtParser = Jwts.parser().verifyWith(getSignKey()).build();
+            parser = jwtParser;
+        }
+
+        return jwtParser;
     }
 }
@@ -17,16 +17,33 @@ import pl.edu.pw.mini.ingreedio.api.auth.repository.RefreshTokenRepository;
 @RequiredArgsConstructor
 public class RefreshTokenService {
     private final RefreshTokenRepository refreshTokenRepository;
+    private final AuthInfoMangerService authInfoMangerService;
 
     @Value("${security.refresh-token-lifetime}")
     private long refreshTokenLifetime;
 
+    /**
+     * Replaces the token with a new one in a single statement.
+     *
+     * @throws ThrowableProblem with the UNAUTHORIZED status if the token is unknown, expired or
+     *     it has been rotated already, e.g. by a concurrent refresh with the same token
+     */
     @Transactional
-    public RefreshToken refreshToken(RefreshToken token) {
-        verifyExpirationOfToken(token);
-        token.setToken(UUID.randomUUID().toString());
-        token.setExpirationDate(Instant.now().plusMillis(refreshTokenLifetime));
-        return refreshTokenRepository.save(token);
+    public RefreshToken rotateToken(String token) throws ThrowableProblem {
+        Instant now = Instant.now();
+        String newToken = UUID.randomUUID().toString();
+        Instant newExpirationDate = now.plusMillis(refreshTokenLifetime);
+
+        // The rotated token is built from the new values, as the token entity may be outdated
+        // in the persistence context
+        return refreshTokenRepository.rotateToken(token, newToken, newExpirationDate, now)
+            .map(rotated -> RefreshToken.builder()
+                .id(rotated.getId())
+                .token(newToken)
+                .expirationDate(newExpirationDate)
+                .authInfo(authInfoMangerService.getByIdWithRoles(rotated.getAuthId()))
+                .build())
+            .orElseThrow(() -> Problem.valueOf(Status.UNAUTHORIZED));
     }
 
     @Transactional
@@ -39,21 +56,4 @@ public class RefreshTokenService {
 
         return refreshTokenRepository.save(refreshToken);
     }
-
-    @Transactional(readOnly = true)
-    public RefreshToken getToken(String token) throws ThrowableProblem {
-        return refreshTokenRepository.findByToken(token)
-            .map(this::verifyExpirationOfToken)
-            .orElseThrow(() -> Problem.valueOf(Status.UNAUTHORIZED));
-    }
-
-    @Transactional
-    public RefreshToken verifyExpirationOfToken(RefreshToken token) throws ThrowableProblem {
-        if (token.getExpirationDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
-            throw Problem.valueOf(Status.UNAUTHORIZED);
-        }
-
-        return token;
-    }
 }
@@ -0,0 +1,72 @@
+package pl.edu.pw.mini.ingreedio.api.auth.service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.edu.pw.mini.ingreedio.api.auth.model.Role;
+import pl.edu.pw.mini.ingreedio.api.auth.repository.RoleRepository;
+
+/**
+ * Snapshot of the authorities granted by every role, see {@link
+ * pl.edu.pw.mini.ingreedio.api.auth.model.AuthInfo#getAuthorities()}.
+ *
+ * <p>The roles with their permissions are loaded at once and the authority sets are shared
+ * between the requests, so they are immutable. The snapshot is rebuilt when the roles change.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoleAuthoritiesService {
+    private final RoleRepository roleRepository;
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    protected void initSnapshot() {
+        refresh();
+    }
+
+    @Transactional(readOnly = true)
+    public void refresh() {
+        Map<String, Set<GrantedAuthority>> roleAuthorities = roleRepository
+            .findAllWithPermissions().stream()
+            .collect(Collectors.toUnmodifiableMap(Role::getName,
+                RoleAuthoritiesService::toAuthorities));
+
+        snapshot = new Snapshot(roleAuthorities, new ConcurrentHashMap<>());
+    }
+
+    // Unknown roles grant no authorities
+    public Set<GrantedAuthority> getAuthorities(Set<String> rolesNames) {
+        Snapshot current = snapshot;
+        if (rolesNames.size() == 1) {
+            return current.roleAuthorities()
+                .getOrDefault(rolesNames.iterator().next(), Set.of());
+        }
+
+        return current.combinedAuthorities().computeIfAbsent(Set.copyOf(rolesNames),
+            names -> Set.copyOf(names.stream()
+                .flatMap(name -> current.roleAuthorities().getOrDefault(name, Set.of()).stream())
+                .collect(Collectors.toSet())));
+    }
+
+    private static Set<GrantedAuthority> toAuthorities(Role role) {
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
+        role.getPermissions().forEach(permission ->
+            authorities.add(new SimpleGrantedAuthority(permission.getName())));
+
+        return Set.copyOf(authorities);
+    }
+
+    private record Snapshot(Map<String, Set<GrantedAuthority>> roleAuthorities,
+                            Map<Set<String>, Set<GrantedAuthority>> combinedAuthorities) {
+    }
+}
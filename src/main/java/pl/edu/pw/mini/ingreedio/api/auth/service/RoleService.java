@@ -12,11 +12,14 @@ import pl.edu.pw.mini.ingreedio.api.auth.exception.RoleNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.auth.model.Permission;
 import pl.edu.pw.mini.ingreedio.api.auth.model.Role;
 import pl.edu.pw.mini.ingreedio.api.auth.repository.RoleRepository;
+import pl.edu.pw.mini.ingreedio.api.auth.security.VerifiedTokenCache;
 
 @Service
 @RequiredArgsConstructor
 public class RoleService {
     private final RoleRepository roleRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RoleAuthoritiesService roleAuthoritiesService;
 
     @Value("${security.default-user-roles}")
     @Getter
@@ -55,6 +58,7 @@ public class RoleService {
     public Role createRoleWithName(String roleName) {
         Role role = Role.builder().name(roleName).build();
         roleRepository.save(role);
+        roleAuthoritiesService.refresh();
 
         return role;
     }
@@ -63,5 +67,8 @@ public class RoleService {
     public void addPermissionToRole(Role role, Permission permission) {
         role.getPermissions().add(permission);
         roleRepository.save(role);
+        roleAuthoritiesService.refresh();
+        // The cached authentications of all the users having the role are outdated
+        verifiedTokenCache.invalidateAll();
     }
 }
@@ -0,0 +1,62 @@
+package pl.edu.pw.mini.ingreedio.api.auth.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.edu.pw.mini.ingreedio.api.auth.security.JwtUserClaims;
+
+/**
+ * In-memory list of revoked access tokens, used by the stateless authentication.
+ *
+ * <p>Every access token carries the revocation version current at the time it was issued.
+ * Revoking the tokens of a user bumps the version and records it for the user, so that all
+ * the tokens of the user issued before are rejected. A token issued at the current version
+ * cannot be revoked, thus the common case requires no lookup at all.
+ *
+ * <p>The versions are based on the current time, so that they keep growing across the
+ * restarts, and the tokens issued before a restart are not taken for current ones.
+ *
+ * <p>The list is kept for the lifetime of an access token only and it is not shared between
+ * the application instances.
+ */
+@Service
+public class TokenRevocationService {
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+
+    @Value("${security.access-token-lifetime}")
+    private long accessTokenLifetime;
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void revokeTokens(String username) {
+        long now = System.currentTimeMillis();
+        revocations.put(username,
+            new Revocation(version.updateAndGet(current -> Math.max(current + 1, now)), now));
+    }
+
+    public boolean isRevoked(JwtUserClaims claims) {
+        long tokenVersion = claims.revocationVersion() == null ? 0 : claims.revocationVersion();
+        if (tokenVersion >= version.get()) {
+            return false;
+        }
+
+        Revocation revocation = revocations.get(claims.username());
+        return revocation != null && tokenVersion < revocation.version();
+    }
+
+    // The tokens issued before a revocation expire after the access token lifetime at most
+    @Scheduled(fixedRateString = "${security.access-token-lifetime}")
+    public void clearOldRevocations() {
+        long expiredBefore = System.currentTimeMillis() - accessTokenLifetime;
+        revocations.values().removeIf(revocation -> revocation.revokedAt() < expiredBefore);
+    }
+
+    private record Revocation(long version, long revokedAt) {
+    }
+}
@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import pl.edu.pw.mini.ingreedio.api.brand.dto.BrandDto;
+import pl.edu.pw.mini.ingreedio.api.brand.mapper.BrandDtoMapper;
 import pl.edu.pw.mini.ingreedio.api.brand.model.Brand;
 import pl.edu.pw.mini.ingreedio.api.brand.service.BrandService;
 
@@ -23,12 +23,12 @@ import pl.edu.pw.mini.ingreedio.api.brand.service.BrandService;
 @Tag(name = "Brands")
 public class BrandController {
     private final BrandService brandService;
-    private final ModelMapper modelMapper;
+    private final BrandDtoMapper brandDtoMapper;
 
     @Operation(summary = "Get brand by ID", description = "Get brand by ID")
     @GetMapping("/{id}")
     public ResponseEntity<BrandDto> getBrandById(@PathVariable long id) {
-        return ResponseEntity.ok(modelMapper.map(brandService.getBrandById(id), BrandDto.class));
+        return ResponseEntity.ok(brandDtoMapper.apply(brandService.getBrandById(id)));
     }
 
     @Operation(summary = "Get brands by IDs", description = "Get brands by IDs")
@@ -36,7 +36,7 @@ public class BrandController {
     public ResponseEntity<Set<BrandDto>> getBrandsByIds(@RequestParam("ids") Set<Long> brandIds) {
         Set<Brand> brands = brandService.getBrandsByIds(brandIds);
         Set<BrandDto> brandDtos = brands.stream()
-                .map(brand -> modelMapper.map(brand, BrandDto.class))
+                .map(brandDtoMapper)
                 .collect(Collectors.toSet());
         return ResponseEntity.ok(brandDtos);
     }
@@ -46,7 +46,7 @@ public class BrandController {
     public ResponseEntity<List<BrandDto>> getAllBrands() {
         List<Brand> brands = brandService.getAllBrands();
         List<BrandDto> brandDtos = brands.stream()
-                .map(brand -> modelMapper.map(brand, BrandDto.class))
+                .map(brandDtoMapper)
                 .toList();
         return ResponseEntity.ok(brandDtos);
     }
@@ -1,6 +1,6 @@
 package pl.edu.pw.mini.ingreedio.api.brand.service;
 
-import java.util.HashSet;
+import jakarta.annotation.PostConstruct;
 import java.util.List;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
@@ -9,19 +9,29 @@ import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.brand.exception.BrandNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.brand.model.Brand;
 import pl.edu.pw.mini.ingreedio.api.brand.repository.BrandRepository;
+import pl.edu.pw.mini.ingreedio.api.common.cache.ReferenceDataCache;
+import pl.edu.pw.mini.ingreedio.api.common.cache.ReferenceDataCacheFactory;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BrandService {
     private final BrandRepository brandRepository;
+    private final ReferenceDataCacheFactory cacheFactory;
+
+    private ReferenceDataCache<Brand> cache;
+
+    @PostConstruct
+    protected void initCache() {
+        cache = cacheFactory.create("brands", brandRepository::findAllByIdIn, Brand::getId);
+    }
 
     public Brand getBrandById(long id) {
-        return brandRepository.findById(id).orElseThrow(() -> new BrandNotFoundException(id));
+        return cache.get(id).orElseThrow(() -> new BrandNotFoundException(id));
     }
 
     public Set<Brand> getBrandsByIds(Set<Long> ids) {
-        return new HashSet<>(brandRepository.findAllByIdIn(ids));
+        return cache.getAll(ids);
     }
 
     public List<Brand> getAllBrands() {
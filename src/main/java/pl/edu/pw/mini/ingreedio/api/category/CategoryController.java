@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import pl.edu.pw.mini.ingreedio.api.category.dto.CategoryDto;
+import pl.edu.pw.mini.ingreedio.api.category.mapper.CategoryDtoMapper;
 import pl.edu.pw.mini.ingreedio.api.category.service.CategoryService;
 
 @RestController
@@ -22,13 +22,13 @@ import pl.edu.pw.mini.ingreedio.api.category.service.CategoryService;
 @Tag(name = "Category")
 public class CategoryController {
     private final CategoryService categoryService;
-    private final ModelMapper modelMapper;
+    private final CategoryDtoMapper categoryDtoMapper;
 
     @Operation(summary = "Get category by ID", description = "Get category by ID")
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDto> getCategoryById(@PathVariable long id) {
         return ResponseEntity.ok(
-            modelMapper.map(categoryService.getCategoryById(id), CategoryDto.class));
+            categoryDtoMapper.apply(categoryService.getCategoryById(id)));
     }
 
     @Operation(summary = "Get categories by IDs", description = "Get categories by IDs")
@@ -37,7 +37,7 @@ public class CategoryController {
         @RequestParam("ids") Set<Long> categoryIds) {
         return ResponseEntity.ok(categoryService.getCategoriesByIds(categoryIds)
             .stream()
-            .map(category -> modelMapper.map(category, CategoryDto.class))
+            .map(categoryDtoMapper)
             .collect(Collectors.toSet()));
     }
 
@@ -46,7 +46,7 @@ public class CategoryController {
     public ResponseEntity<List<CategoryDto>> getAllCategories() {
         return ResponseEntity.ok(categoryService.getAllCategories()
             .stream()
-            .map(category -> modelMapper.map(category, CategoryDto.class))
+            .map(categoryDtoMapper)
             .toList());
     }
 }
@@ -0,0 +1,17 @@
+package pl.edu.pw.mini.ingreedio.api.category.mapper;
+
+import java.util.function.Function;
+import org.springframework.stereotype.Service;
+import pl.edu.pw.mini.ingreedio.api.category.dto.CategoryDto;
+import pl.edu.pw.mini.ingreedio.api.category.model.Category;
+
+@Service
+public class CategoryDtoMapper implements Function<Category, CategoryDto> {
+    @Override
+    public CategoryDto apply(Category category) {
+        return CategoryDto.builder()
+            .id(category.getId())
+            .name(category.getName())
+            .build();
+    }
+}
@@ -1,6 +1,6 @@
 package pl.edu.pw.mini.ingreedio.api.category.service;
 
-import java.util.HashSet;
+import jakarta.annotation.PostConstruct;
 import java.util.List;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
@@ -9,19 +9,30 @@ import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.category.exception.CategoryNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.category.model.Category;
 import pl.edu.pw.mini.ingreedio.api.category.repository.CategoryRepository;
+import pl.edu.pw.mini.ingreedio.api.common.cache.ReferenceDataCache;
+import pl.edu.pw.mini.ingreedio.api.common.cache.ReferenceDataCacheFactory;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ReferenceDataCacheFactory cacheFactory;
+
+    private ReferenceDataCache<Category> cache;
+
+    @PostConstruct
+    protected void initCache() {
+        cache = cacheFactory.create("categories", categoryRepository::findAllByIdIn,
+            Category::getId);
+    }
 
     public Category getCategoryById(long id) {
-        return categoryRepository.findById(id).orElseThrow(() -> new CategoryNotFoundException(id));
+        return cache.get(id).orElseThrow(() -> new CategoryNotFoundException(id));
     }
 
     public Set<Category> getCategoriesByIds(Set<Long> ids) {
-        return new HashSet<>(categoryRepository.findAllByIdIn(ids));
+        return cache.getAll(ids);
     }
 
     public List<Category> getAllCategories() {
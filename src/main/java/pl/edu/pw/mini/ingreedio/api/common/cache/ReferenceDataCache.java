@@ -0,0 +1,44 @@
+package pl.edu.pw.mini.ingreedio.api.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded cache of rarely modified entities, looked up by their ids.
+ *
+ * <p>Bulk lookups serve the cached entities and load only the missing ones,
+ * with a single call of the loader. Ids of non-existing entities are not cached.
+ */
+public class ReferenceDataCache<T> {
+    private final Cache<Long, T> cache;
+    private final Function<Set<Long>, ? extends Collection<T>> loader;
+    private final Function<T, Long> idGetter;
+
+    ReferenceDataCache(Cache<Long, T> cache,
+                       Function<Set<Long>, ? extends Collection<T>> loader,
+                       Function<T, Long> idGetter) {
+        this.cache = cache;
+        this.loader = loader;
+        this.idGetter = idGetter;
+    }
+
+    public Optional<T> get(long id) {
+        return Optional.ofNullable(cache.getAll(Set.of(id), this::load).get(id));
+    }
+
+    public Set<T> getAll(Set<Long> ids) {
+        return new HashSet<>(cache.getAll(ids, this::load).values());
+    }
+
+    private Map<Long, T> load(Set<? extends Long> ids) {
+        return loader.apply(Set.copyOf(ids))
+            .stream()
+            .collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+}
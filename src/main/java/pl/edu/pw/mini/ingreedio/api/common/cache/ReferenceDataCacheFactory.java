@@ -0,0 +1,40 @@
+package pl.edu.pw.mini.ingreedio.api.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCacheFactory {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.reference-data.maximum-size}")
+    private long maximumSize;
+
+    @Value("${cache.reference-data.expire-after-write}")
+    private Duration expireAfterWrite;
+
+    // Hit, miss and eviction counts are published as the cache.* metrics tagged with the name
+    public <T> ReferenceDataCache<T> create(String name,
+                                            Function<Set<Long>, ? extends Collection<T>> loader,
+                                            Function<T, Long> idGetter) {
+        Cache<Long, T> cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+
+        return new ReferenceDataCache<>(cache, loader, idGetter);
+    }
+}
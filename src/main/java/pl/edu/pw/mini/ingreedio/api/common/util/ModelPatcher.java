@@ -1,36 +1,98 @@
 package pl.edu.pw.mini.ingreedio.api.common.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.stereotype.Component;
 
+/**
+ * Copies the non-null fields of a patch onto a target object.
+ *
+ * <p>The fields to copy are resolved once per class and set of excluded fields, and they are
+ * accessed through method handles afterward. The nested fields are patched recursively
+ * instead of being replaced, if both the target and the patch have them set.
+ */
 @Component
 public class ModelPatcher<T> {
+    private static final MethodType GETTER_TYPE =
+        MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE =
+        MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Map<PlanKey, List<FieldPatcher>> plans = new ConcurrentHashMap<>();
 
     public T patch(T target, T patch) {
         return patchAndExcludeFields(target, patch, Set.of());
     }
 
     public T patchAndExcludeFields(T target, T patch, Set<String> excludeFields) {
-        for (Field field : patch.getClass().getDeclaredFields()) {
-            if (excludeFields.contains(field.getName())
-                    || Modifier.isStatic(field.getModifiers())
-                    || Modifier.isFinal(field.getModifiers())) {
-                continue;
-            }
+        return patchAndExcludeFields(target, patch, excludeFields, Set.of());
+    }
+
+    public T patchAndExcludeFields(T target, T patch, Set<String> excludeFields,
+                                   Set<String> nestedFields) {
+        patchObject(target, patch, new PlanKey(patch.getClass(), excludeFields, nestedFields));
+        return target;
+    }
 
-            field.setAccessible(true);
+    private void patchObject(Object target, Object patch, PlanKey planKey) {
+        for (FieldPatcher fieldPatcher : plans.computeIfAbsent(planKey, ModelPatcher::createPlan)) {
             try {
-                Object newValue = field.get(patch);
-                if (newValue != null) {
-                    field.set(target, newValue);
+                Object newValue = (Object) fieldPatcher.getter().invokeExact(patch);
+                if (newValue == null) {
+                    continue;
+                }
+
+                Object oldValue = fieldPatcher.nested()
+                    ? (Object) fieldPatcher.getter().invokeExact(target) : null;
+                if (oldValue != null && oldValue.getClass() == newValue.getClass()) {
+                    patchObject(oldValue, newValue,
+                        new PlanKey(newValue.getClass(), Set.of(), Set.of()));
+                } else {
+                    fieldPatcher.setter().invokeExact(target, newValue);
                 }
-            } catch (IllegalAccessException e) {
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
                 throw new RuntimeException(e);
             }
         }
+    }
 
-        return target;
+    private static List<FieldPatcher> createPlan(PlanKey planKey) {
+        List<FieldPatcher> plan = new ArrayList<>();
+        try {
+            MethodHandles.Lookup lookup =
+                MethodHandles.privateLookupIn(planKey.type(), MethodHandles.lookup());
+            for (Field field : planKey.type().getDeclaredFields()) {
+                if (planKey.excludeFields().contains(field.getName())
+                        || Modifier.isStatic(field.getModifiers())
+                        || Modifier.isFinal(field.getModifiers())) {
+                    continue;
+                }
+
+                plan.add(new FieldPatcher(
+                    lookup.unreflectGetter(field).asType(GETTER_TYPE),
+                    lookup.unreflectSetter(field).asType(SETTER_TYPE),
+                    planKey.nestedFields().contains(field.getName())));
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+
+        return List.copyOf(plan);
+    }
+
+    private record PlanKey(Class<?> type, Set<String> excludeFields, Set<String> nestedFields) {
+    }
+
+    private record FieldPatcher(MethodHandle getter, MethodHandle setter, boolean nested) {
     }
 }
@@ -12,7 +12,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import pl.edu.pw.mini.ingreedio.api.ingredient.dto.IngredientDto;
+import pl.edu.pw.mini.ingreedio.api.ingredient.mapper.IngredientDtoMapper;
 import pl.edu.pw.mini.ingreedio.api.ingredient.model.Ingredient;
 import pl.edu.pw.mini.ingreedio.api.ingredient.service.IngredientService;
 import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
@@ -34,7 +34,7 @@ import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
 public class IngredientController {
     private final UserService userService;
     private final IngredientService ingredientService;
-    private final ModelMapper modelMapper;
+    private final IngredientDtoMapper ingredientDtoMapper;
 
     @Operation(summary = "Search ingredients",
         description = "Fetches a list of ingredients based on the provided query and limits "
@@ -58,7 +58,7 @@ public class IngredientController {
                     query.toUpperCase(),
                     userService.getUser(authentication), skipAllergens)
                 .stream()
-                .map((ingredient) -> modelMapper.map(ingredient, IngredientDto.class))
+                .map(ingredientDtoMapper)
                 .toList();
 
             return ResponseEntity.ok(ingredientDtoList);
@@ -67,7 +67,7 @@ public class IngredientController {
         List<IngredientDto> ingredientDtoList = ingredientService
             .getIngredients(count, query.toUpperCase())
             .stream()
-            .map((ingredient) -> modelMapper.map(ingredient, IngredientDto.class))
+            .map(ingredientDtoMapper)
             .toList();
         return ResponseEntity.ok(ingredientDtoList);
     }
@@ -82,7 +82,7 @@ public class IngredientController {
     @GetMapping("/{id}")
     public ResponseEntity<IngredientDto> getIngredientById(@PathVariable long id) {
         Ingredient ingredient = ingredientService.getIngredientById(id);
-        IngredientDto ingredientDto = modelMapper.map(ingredient, IngredientDto.class);
+        IngredientDto ingredientDto = ingredientDtoMapper.apply(ingredient);
         return ResponseEntity.ok(ingredientDto);
     }
 
@@ -101,7 +101,7 @@ public class IngredientController {
         Set<IngredientDto> ingredientDtos = ingredientService
             .getIngredientsByIds(ingredientsIds)
             .stream()
-            .map((ingredient) -> modelMapper.map(ingredient, IngredientDto.class))
+            .map(ingredientDtoMapper)
             .collect(Collectors.toSet());
         return ResponseEntity.ok(ingredientDtos);
     }
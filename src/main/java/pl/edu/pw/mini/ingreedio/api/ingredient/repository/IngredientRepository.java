@@ -3,13 +3,10 @@ package pl.edu.pw.mini.ingreedio.api.ingredient.repository;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import pl.edu.pw.mini.ingreedio.api.ingredient.model.Ingredient;
-import pl.edu.pw.mini.ingreedio.api.user.model.User;
 
 @Repository
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
@@ -17,35 +14,49 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
 
     List<Ingredient> findAllByIdIn(Set<Long> ids);
 
+    // The pattern matches the names with any of the query tokens at the start of a word, so the
+    // trigram index narrows down the candidates, and the tokens matched by every candidate are
+    // counted once, in the lateral subquery
     @Query(value = """
-            select i from Ingredient i
-            where function('string_matches_query', i.name, :query) > 0
-            order by function('string_matches_query', i.name, :query) desc,
-                i.name
-        """)
-    Page<Ingredient> findIngredientsMatchingQuery(Pageable pageable, String[] query);
+            SELECT i.* FROM ingredients i
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS matches FROM unnest(:query) AS q(token)
+                WHERE i.name LIKE q.token || '%' OR i.name LIKE '% ' || q.token || '%'
+            ) m
+            WHERE i.name ~ :pattern
+            ORDER BY m.matches DESC, i.name
+            LIMIT :limit
+        """, nativeQuery = true)
+    List<Ingredient> findIngredientsMatchingQuery(String pattern, String[] query, int limit);
 
     @Query(value = """
-            select i from Ingredient i
-            where function('string_matches_query', i.name, :query) > 0
-                and not (:skipAllergens = true and i in (
-                    select allergens from User u
-                    join u.allergens allergens
-                    where u = :user
-                ))
-            order by function('string_matches_query', i.name, :query) desc,
-                case when (i in (
-                    select allergens from User u
-                    join u.allergens allergens
-                    where u = :user
-                )) then 1 else 0 end asc,
-                case when (i in (
-                    select likes from User u
-                    join u.likedIngredients likes
-                    where u = :user
-                )) then 1 else 0 end desc,
-                i.name
-        """)
-    Page<Ingredient> findIngredientsMatchingQuery(Pageable pageable, String[] query, User user,
-                                                  boolean skipAllergens);
+            SELECT i.* FROM ingredients i
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS matches FROM unnest(:query) AS q(token)
+                WHERE i.name LIKE q.token || '%' OR i.name LIKE '% ' || q.token || '%'
+            ) m
+            CROSS JOIN LATERAL (
+                SELECT EXISTS (
+                    SELECT 1 FROM users_allergens a
+                    WHERE a.user_id = :userId AND a.ingredient_id = i.id
+                ) AS allergen, EXISTS (
+                    SELECT 1 FROM users_ingredients l
+                    WHERE l.user_id = :userId AND l.ingredient_id = i.id
+                ) AS liked
+            ) u
+            WHERE i.name ~ :pattern
+                AND NOT (:skipAllergens AND u.allergen)
+            ORDER BY m.matches DESC, u.allergen ASC, u.liked DESC, i.name
+            LIMIT :limit
+        """, nativeQuery = true)
+    List<Ingredient> findIngredientsMatchingQuery(String pattern, String[] query, int limit,
+                                                  long userId, boolean skipAllergens);
+
+    @Query(value = "SELECT ingredient_id FROM users_ingredients WHERE user_id = :userId",
+        nativeQuery = true)
+    Set<Long> findLikedIngredientIdsByUserId(long userId);
+
+    @Query(value = "SELECT ingredient_id FROM users_allergens WHERE user_id = :userId",
+        nativeQuery = true)
+    Set<Long> findAllergenIdsByUserId(long userId);
 }
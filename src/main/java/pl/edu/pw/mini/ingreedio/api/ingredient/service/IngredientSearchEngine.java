@@ -0,0 +1,9 @@
+package pl.edu.pw.mini.ingreedio.api.ingredient.service;
+
+public enum IngredientSearchEngine {
+    // Native query narrowed down by the trigram index of the ingredient names
+    DATABASE,
+
+    // Prefix trie of the ingredient names, loaded at startup and kept in memory
+    MEMORY
+}
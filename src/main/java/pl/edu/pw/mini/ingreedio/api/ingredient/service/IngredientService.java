@@ -1,14 +1,25 @@
 package pl.edu.pw.mini.ingreedio.api.ingredient.service;
 
-import java.util.HashSet;
+import jakarta.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.edu.pw.mini.ingreedio.api.common.cache.ReferenceDataCache;
+import pl.edu.pw.mini.ingreedio.api.common.cache.ReferenceDataCacheFactory;
 import pl.edu.pw.mini.ingreedio.api.ingredient.model.Ingredient;
 import pl.edu.pw.mini.ingreedio.api.ingredient.repository.IngredientRepository;
+import pl.edu.pw.mini.ingreedio.api.ingredient.service.IngredientTrie.IngredientMatch;
+import pl.edu.pw.mini.ingreedio.api.ingredient.service.UserIngredientsCache.UserIngredients;
 import pl.edu.pw.mini.ingreedio.api.product.exception.IngredientNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
 import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
@@ -16,40 +27,116 @@ import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
 @Service
 @RequiredArgsConstructor
 public class IngredientService {
+    private static final Pattern REGEX_SPECIAL_CHARACTERS =
+        Pattern.compile("[\\\\.^$|?*+()\\[\\]{}]");
+
     private final IngredientRepository ingredientRepository;
     private final UserService userService;
+    private final ReferenceDataCacheFactory cacheFactory;
+    private final UserIngredientsCache userIngredientsCache;
+    private final IngredientTrie trie = new IngredientTrie();
+
+    @Value("${ingredient.search.engine:MEMORY}")
+    private IngredientSearchEngine searchEngine;
+
+    private ReferenceDataCache<Ingredient> cache;
+
+    @PostConstruct
+    protected void initCache() {
+        cache = cacheFactory.create("ingredients", ingredientRepository::findAllByIdIn,
+            Ingredient::getId);
+    }
+
+    @PostConstruct
+    protected void initTrie() {
+        if (searchEngine == IngredientSearchEngine.MEMORY) {
+            ingredientRepository.findAll()
+                .forEach(ingredient -> trie.add(ingredient.getId(), ingredient.getName()));
+        }
+    }
 
     @Transactional(readOnly = true)
     public List<Ingredient> getIngredients(int count, String queryString, User user,
                                            boolean skipAllergens) {
         String[] query = queryString.split("\\s+");
+        if (searchEngine == IngredientSearchEngine.MEMORY) {
+            UserIngredients userIngredients = userIngredientsCache.get(user.getId());
+            return trie.match(query).stream()
+                .filter(match -> !skipAllergens
+                    || !userIngredients.allergenIds().contains(match.id()))
+                .sorted(Comparator.comparingInt(IngredientMatch::matches).reversed()
+                    .thenComparing(match -> userIngredients.allergenIds().contains(match.id()))
+                    .thenComparing(
+                        match -> !userIngredients.likedIngredientIds().contains(match.id()))
+                    .thenComparing(IngredientMatch::name))
+                .limit(count)
+                .map(IngredientService::toIngredient)
+                .toList();
+        }
+
         return ingredientRepository.findIngredientsMatchingQuery(
-                PageRequest.of(0, count), query, user, skipAllergens)
-            .toList();
+            getQueryPattern(query), query, count, user.getId(), skipAllergens);
     }
 
     @Transactional(readOnly = true)
     public List<Ingredient> getIngredients(int count, String queryString) {
         String[] query = queryString.split("\\s+");
+        if (searchEngine == IngredientSearchEngine.MEMORY) {
+            return trie.match(query).stream()
+                .sorted(Comparator.comparingInt(IngredientMatch::matches).reversed()
+                    .thenComparing(IngredientMatch::name))
+                .limit(count)
+                .map(IngredientService::toIngredient)
+                .toList();
+        }
+
         return ingredientRepository.findIngredientsMatchingQuery(
-                PageRequest.of(0, count), query)
-            .toList();
+            getQueryPattern(query), query, count);
+    }
+
+    private static Ingredient toIngredient(IngredientMatch match) {
+        return Ingredient.builder()
+            .id(match.id())
+            .name(match.name())
+            .build();
+    }
+
+    // Matches the names with any of the tokens at the start of a word, just as the names
+    // counted by the string_matches_query function
+    static String getQueryPattern(String[] query) {
+        return Arrays.stream(query)
+            .map(token -> REGEX_SPECIAL_CHARACTERS.matcher(token).replaceAll("\\\\$0"))
+            .collect(Collectors.joining("|", "(^| )(", ")"));
     }
 
     @Transactional(readOnly = true)
     public Ingredient getIngredientById(long id) throws IngredientNotFoundException {
-        return ingredientRepository.findById(id)
+        return cache.get(id)
             .orElseThrow(() -> new IngredientNotFoundException(id));
     }
 
     @Transactional(readOnly = true)
     public Set<Ingredient> getIngredientsByIds(Set<Long> ids) {
-        return new HashSet<>(ingredientRepository.findAllByIdIn(ids));
+        return cache.getAll(ids);
     }
 
     @Transactional
     public Ingredient addIngredient(Ingredient ingredient) {
-        return ingredientRepository.save(ingredient);
+        // The ids of non-existing ingredients are not cached, so no cached entry is outdated
+        Ingredient savedIngredient = ingredientRepository.save(ingredient);
+
+        // The ingredient is searchable at once, and it is removed from the trie again if the
+        // transaction is rolled back
+        if (searchEngine == IngredientSearchEngine.MEMORY) {
+            long id = savedIngredient.getId();
+            trie.add(id, savedIngredient.getName());
+            afterCompletion(status -> {
+                if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                    trie.remove(id);
+                }
+            });
+        }
+        return savedIngredient;
     }
 
     @Transactional
@@ -57,6 +144,7 @@ public class IngredientService {
         throws IngredientNotFoundException {
         user.getLikedIngredients().add(ingredient);
         userService.saveUser(user);
+        invalidateUserIngredients(user.getId());
     }
 
     @Transactional
@@ -64,12 +152,14 @@ public class IngredientService {
         throws IngredientNotFoundException {
         user.getLikedIngredients().remove(ingredient);
         userService.saveUser(user);
+        invalidateUserIngredients(user.getId());
     }
 
     @Transactional
     public void addAllergen(Ingredient ingredient, User user) throws IngredientNotFoundException {
         user.getAllergens().add(ingredient);
         userService.saveUser(user);
+        invalidateUserIngredients(user.getId());
     }
 
     @Transactional
@@ -77,5 +167,25 @@ public class IngredientService {
         throws IngredientNotFoundException {
         user.getAllergens().remove(ingredient);
         userService.saveUser(user);
+        invalidateUserIngredients(user.getId());
+    }
+
+    // The entry is invalidated again once the transaction completes, as it may have been
+    // loaded by a concurrent search in the meantime
+    private void invalidateUserIngredients(long userId) {
+        userIngredientsCache.invalidate(userId);
+        afterCompletion(status -> userIngredientsCache.invalidate(userId));
+    }
+
+    private static void afterCompletion(IntConsumer action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        action.accept(status);
+                    }
+                });
+        }
     }
 }
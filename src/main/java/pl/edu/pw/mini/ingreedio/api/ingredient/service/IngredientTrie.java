@@ -0,0 +1,201 @@
+package pl.edu.pw.mini.ingreedio.api.ingredient.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie of the words of the ingredient names, used by the ingredients autocomplete.
+ *
+ * <p>Every node keeps the sorted ids of the ingredients with a word starting with the prefix
+ * of the node, so the ingredients matching a token are found in the time proportional to the
+ * length of the token. A token matches a name if it is a prefix of the name or of the text
+ * following any of its spaces, just as in the string_matches_query database function.
+ *
+ * <p>The trie is safe for concurrent use, the searches wait only for the ingredients being
+ * added or removed.
+ */
+public class IngredientTrie {
+    private static final long[] NO_IDS = {};
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<Long, String> names = new HashMap<>();
+
+    public void add(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            String oldName = names.put(id, name);
+            if (oldName != null) {
+                removeWords(id, oldName);
+            }
+
+            for (String word : name.split(" ", -1)) {
+                Node node = root;
+                node.addId(id);
+                for (int i = 0; i < word.length(); i++) {
+                    node = node.getOrAddChild(word.charAt(i));
+                    node.addId(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String name = names.remove(id);
+            if (name != null) {
+                removeWords(id, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every token is counted as many times as it occurs in the query
+    public List<IngredientMatch> match(String[] tokens) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> matches = new HashMap<>();
+            for (String token : tokens) {
+                for (long id : find(token)) {
+                    matches.merge(id, 1, Integer::sum);
+                }
+            }
+
+            List<IngredientMatch> result = new ArrayList<>(matches.size());
+            matches.forEach((id, count) ->
+                result.add(new IngredientMatch(id, names.get(id), count)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.getChild(prefix.charAt(i));
+        }
+
+        return node != null ? node.ids : NO_IDS;
+    }
+
+    // The nodes left without ids have no ids below them either, so they are pruned
+    private void removeWords(long id, String name) {
+        for (String word : name.split(" ", -1)) {
+            Node node = root;
+            node.removeId(id);
+            for (int i = 0; i < word.length(); i++) {
+                Node child = node.getChild(word.charAt(i));
+                if (child == null) {
+                    break;
+                }
+
+                child.removeId(id);
+                if (child.ids.length == 0) {
+                    node.removeChild(word.charAt(i));
+                    break;
+                }
+                node = child;
+            }
+        }
+    }
+
+    public record IngredientMatch(long id, String name, int matches) {
+    }
+
+    // The keys of the children and the ids are sorted, so they are binary searched
+    private static final class Node {
+        private char[] keys = {};
+        private Node[] children = {};
+        private long[] ids = NO_IDS;
+
+        private Node getChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node getOrAddChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertionIndex = -index - 1;
+            Node child = new Node();
+            keys = insert(keys, insertionIndex, key);
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insertionIndex);
+            newChildren[insertionIndex] = child;
+            System.arraycopy(children, insertionIndex, newChildren, insertionIndex + 1,
+                children.length - insertionIndex);
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+
+            char[] newKeys = new char[keys.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            keys = newKeys;
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            children = newChildren;
+        }
+
+        // A name can have several words with the same prefix
+        private void addId(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index < 0) {
+                int insertionIndex = -index - 1;
+                long[] newIds = new long[ids.length + 1];
+                System.arraycopy(ids, 0, newIds, 0, insertionIndex);
+                newIds[insertionIndex] = id;
+                System.arraycopy(ids, insertionIndex, newIds, insertionIndex + 1,
+                    ids.length - insertionIndex);
+                ids = newIds;
+            }
+        }
+
+        private void removeId(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) {
+                long[] newIds = new long[ids.length - 1];
+                System.arraycopy(ids, 0, newIds, 0, index);
+                System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+                ids = newIds;
+            }
+        }
+
+        private static char[] insert(char[] array, int index, char value) {
+            char[] newArray = new char[array.length + 1];
+            System.arraycopy(array, 0, newArray, 0, index);
+            newArray[index] = value;
+            System.arraycopy(array, index, newArray, index + 1, array.length - index);
+            return newArray;
+        }
+    }
+}
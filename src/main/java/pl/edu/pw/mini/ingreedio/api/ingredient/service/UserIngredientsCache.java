@@ -0,0 +1,52 @@
+package pl.edu.pw.mini.ingreedio.api.ingredient.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.edu.pw.mini.ingreedio.api.ingredient.repository.IngredientRepository;
+
+/**
+ * Cache of the ids of the liked ingredients and the allergens of the users, used to rank the
+ * ingredients found in memory.
+ *
+ * <p>The entry of a user is invalidated when their liked ingredients or allergens change.
+ */
+@Component
+public class UserIngredientsCache {
+    private final IngredientRepository ingredientRepository;
+    private final Cache<Long, UserIngredients> cache;
+
+    public UserIngredientsCache(IngredientRepository ingredientRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${cache.user-ingredients.maximum-size}")
+                                long maximumSize,
+                                @Value("${cache.user-ingredients.expire-after-write}")
+                                Duration expireAfterWrite) {
+        this.ingredientRepository = ingredientRepository;
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-ingredients");
+    }
+
+    public UserIngredients get(long userId) {
+        return cache.get(userId, id -> new UserIngredients(
+            Set.copyOf(ingredientRepository.findLikedIngredientIdsByUserId(id)),
+            Set.copyOf(ingredientRepository.findAllergenIdsByUserId(id))));
+    }
+
+    public void invalidate(long userId) {
+        cache.invalidate(userId);
+    }
+
+    public record UserIngredients(Set<Long> likedIngredientIds, Set<Long> allergenIds) {
+    }
+}
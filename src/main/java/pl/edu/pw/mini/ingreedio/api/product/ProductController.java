@@ -1,7 +1,6 @@
 package pl.edu.pw.mini.ingreedio.api.product;
 
 import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,8 +13,9 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -36,16 +36,20 @@ import org.zalando.problem.Problem;
 import org.zalando.problem.Status;
 import pl.edu.pw.mini.ingreedio.api.auth.model.AuthInfo;
 import pl.edu.pw.mini.ingreedio.api.common.validation.ValidationGroups;
+import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductCriteria;
 import pl.edu.pw.mini.ingreedio.api.product.dto.ProductDto;
 import pl.edu.pw.mini.ingreedio.api.product.dto.ProductPageDto;
 import pl.edu.pw.mini.ingreedio.api.product.dto.ProductRequestDto;
 import pl.edu.pw.mini.ingreedio.api.product.dto.ProductViewDto;
-import pl.edu.pw.mini.ingreedio.api.product.exception.ProductNotFoundException;
+import pl.edu.pw.mini.ingreedio.api.product.mapper.ProductDocumentMapper;
+import pl.edu.pw.mini.ingreedio.api.product.mapper.ProductDtoMapper;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CappedPage;
 import pl.edu.pw.mini.ingreedio.api.product.service.PaginationService;
 import pl.edu.pw.mini.ingreedio.api.product.service.ProductCriteriaService;
 import pl.edu.pw.mini.ingreedio.api.product.service.ProductService;
 import pl.edu.pw.mini.ingreedio.api.review.dto.ReviewDto;
+import pl.edu.pw.mini.ingreedio.api.review.dto.ReviewPageDto;
 import pl.edu.pw.mini.ingreedio.api.review.dto.ReviewRequestDto;
 import pl.edu.pw.mini.ingreedio.api.review.model.Review;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
@@ -62,22 +66,28 @@ public class ProductController {
     private final PaginationService paginationService;
     private final ProductCriteriaService productCriteriaService;
 
-    private final ModelMapper modelMapper;
+    private final ProductDtoMapper productDtoMapper;
+    private final ProductDocumentMapper productDocumentMapper;
 
     @Operation(summary = "Get matching products",
         description = "Fetches a list of products based on various search criteria such as "
             + "ingredients, rating, phrase, and sorting options. If authenticated, user gets "
-            + "additional info about whether the product is liked.",
+            + "additional info about whether the product is liked. If a cursor is given "
+            + "(empty for the first page), the page number is ignored, the next cursor is "
+            + "returned instead of the totals and the page is resumed after the cursor.",
         security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Products retrieved successfully",
-            content = @Content(schema = @Schema(implementation = ProductPageDto.class)))
+            content = @Content(schema = @Schema(implementation = ProductPageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor",
+            content = @Content)
     })
     @GetMapping("/search")
     public ResponseEntity<ProductPageDto> searchForProducts(
         Authentication authentication,
         @RequestParam("page-number") Optional<Integer> pageNumber,
+        @RequestParam("cursor") Optional<String> cursor,
         @RequestParam("ingredients-exclude") Optional<Set<Long>> ingredientsToExclude,
         @RequestParam("ingredients-include") Optional<Set<Long>> ingredientsToInclude,
         @RequestParam("min-rating") Optional<Integer> minRating,
@@ -88,35 +98,55 @@ public class ProductController {
         @RequestParam("brands-include") Optional<Set<Long>> brandsToInclude,
         @RequestParam("providers") Optional<Set<Long>> providers,
         @RequestParam("categories") Optional<Set<Long>> categories) {
-        Page<ProductDocument> products = productService.getProductsMatchingCriteria(
-            productCriteriaService.getProductsCriteria(
-                ingredientsToExclude,
-                ingredientsToInclude,
-                minRating,
-                phrase,
-                sortBy,
-                liked,
-                providers,
-                brandsToExclude,
-                brandsToInclude,
-                categories
-            ),
+        User user = (authentication != null && authentication.isAuthenticated())
+            ? userService.getUser(authentication) : null;
+
+        ProductCriteria criteria = productCriteriaService.getProductsCriteria(
+            ingredientsToExclude,
+            ingredientsToInclude,
+            minRating,
+            phrase,
+            sortBy,
+            liked,
+            providers,
+            brandsToExclude,
+            brandsToInclude,
+            categories,
+            Optional.ofNullable(user).map(User::getId)
+        );
+
+        if (cursor.isPresent()) {
+            Window<ProductDocument> products = productService.getProductsMatchingCriteria(
+                criteria,
+                paginationService.getScrollPosition(cursor.get()),
+                paginationService.getPageSize()
+            );
+
+            return ResponseEntity.ok(ProductPageDto.builder()
+                .products(getProductViewDtos(products.getContent(), user))
+                .nextCursor(paginationService.getNextCursor(products).orElse(null))
+                .build());
+        }
+
+        CappedPage<ProductDocument> products = productService.getProductsMatchingCriteria(
+            criteria,
             paginationService.getPageRequest(pageNumber)
         );
 
-        User user = (authentication != null && authentication.isAuthenticated())
-            ? userService.getUser(authentication) : null;
+        return ResponseEntity.ok(ProductPageDto.builder()
+            .products(getProductViewDtos(products.getContent(), user))
+            .totalPages(products.getTotalPages())
+            .totalProducts(products.getTotalElements())
+            .totalCapped(products.isTotalCapped())
+            .build());
+    }
 
-        List<ProductViewDto> productsDtos = products.getContent()
+    private List<ProductViewDto> getProductViewDtos(List<ProductDocument> products, User user) {
+        return products
             .stream()
-            .map(product -> modelMapper
-                .map(product, ProductViewDto.ProductViewDtoBuilder.class)
-                .isLiked(user != null && productService.isProductLikedByUser(product, user))
-                .build()
-            )
+            .map(product -> productDtoMapper.toViewDto(product,
+                user != null && productService.isProductLikedByUser(product, user)))
             .collect(Collectors.toList());
-
-        return ResponseEntity.ok(new ProductPageDto(productsDtos, products.getTotalPages()));
     }
 
     @Operation(summary = "Get full info of a specific product",
@@ -136,10 +166,8 @@ public class ProductController {
         User user = (authentication != null && authentication.isAuthenticated())
             ? userService.getUser(authentication) : null;
 
-        return ResponseEntity.ok(modelMapper
-            .map(product, ProductDto.ProductDtoBuilder.class)
-            .isLiked(user != null && productService.isProductLikedByUser(product, user))
-            .build());
+        return ResponseEntity.ok(productDtoMapper.apply(product,
+            user != null && productService.isProductLikedByUser(product, user)));
     }
 
     @Operation(summary = "Add a new product",
@@ -154,12 +182,12 @@ public class ProductController {
     @PostMapping
     public ResponseEntity<ProductDto> addProduct(
         @RequestBody @Validated(ValidationGroups.Put.class) ProductRequestDto productRequest) {
-        ProductDocument product = modelMapper.map(productRequest, ProductDocument.class);
+        ProductDocument product = productDocumentMapper.apply(productRequest);
 
         ProductDocument savedProduct = productService
             .addProduct(productService.makeProductFieldsValid(product));
 
-        return new ResponseEntity<>(modelMapper.map(savedProduct, ProductDto.class),
+        return new ResponseEntity<>(productDtoMapper.apply(savedProduct),
             HttpStatus.CREATED);
     }
 
@@ -196,10 +224,7 @@ public class ProductController {
     public ResponseEntity<ProductDocument> updateProduct(@PathVariable long id,
                                                          @Validated(ValidationGroups.Put.class)
                                                          @RequestBody ProductRequestDto product) {
-        ProductDocument newProduct = modelMapper
-            .map(product, ProductDocument.ProductDocumentBuilder.class)
-            .id(id)
-            .build();
+        ProductDocument newProduct = productDocumentMapper.apply(product, id);
 
         return ResponseEntity.ok(productService
             .updateProduct(productService.makeProductFieldsValid(newProduct)));
@@ -221,10 +246,7 @@ public class ProductController {
     public ResponseEntity<ProductDocument> updateProductPatch(@PathVariable long id,
                                                          @Validated(ValidationGroups.Patch.class)
                                                          @RequestBody ProductRequestDto product) {
-        ProductDocument productPatch = modelMapper
-            .map(product, ProductDocument.ProductDocumentBuilder.class)
-            .id(id)
-            .build();
+        ProductDocument productPatch = productDocumentMapper.apply(product, id);
 
         return ResponseEntity.ok(productService
             .updateProduct(productService.makeProductFieldsValid(productPatch)));
@@ -287,25 +309,29 @@ public class ProductController {
     }
 
     @Operation(summary = "Get product reviews",
-        description = "Fetches a list of reviews for a product based on the provided product ID.",
+        description = "Fetches a page of reviews for a product based on the provided product ID. "
+            + "If authenticated, the review of the user comes first and the user gets "
+            + "additional info about whether the reviews are liked or disliked.",
         security = @SecurityRequirement(name = "Bearer Authentication"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Reviews retrieved successfully",
-            content = @Content(
-                array = @ArraySchema(schema = @Schema(implementation = ReviewDto.class))
-            )),
+            content = @Content(schema = @Schema(implementation = ReviewPageDto.class))),
         @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
     })
     @GetMapping("/{id}/reviews")
-    public ResponseEntity<List<ReviewDto>> getProductReviews(Authentication authentication,
-                                                             @PathVariable long id) {
-        if (authentication != null && authentication.isAuthenticated()) {
-            return productService.getProductReviews(id, userService.getUser(authentication))
-                .map(ResponseEntity::ok)
-                .orElseThrow(() -> new ProductNotFoundException(id));
-        }
+    public ResponseEntity<ReviewPageDto> getProductReviews(
+        Authentication authentication,
+        @PathVariable long id,
+        @RequestParam("page-number") Optional<Integer> pageNumber) {
+        PageRequest pageRequest = paginationService.getPageRequest(pageNumber);
+        Page<ReviewDto> reviews = (authentication != null && authentication.isAuthenticated())
+            ? productService.getProductReviews(id, userService.getUser(authentication), pageRequest)
+            : productService.getProductReviews(id, pageRequest);
 
-        return productService.getProductReviews(id).map(ResponseEntity::ok)
-            .orElseThrow(() -> new ProductNotFoundException(id));
+        return ResponseEntity.ok(ReviewPageDto.builder()
+            .reviews(reviews.getContent())
+            .totalPages(reviews.getTotalPages())
+            .totalReviews(reviews.getTotalElements())
+            .build());
     }
 }
@@ -0,0 +1,50 @@
+package pl.edu.pw.mini.ingreedio.api.product.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.stereotype.Component;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+
+@Component
+@RequiredArgsConstructor
+public class ProductIndexesInitializer {
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    protected void initIndexes() {
+        IndexOperations indexOperations = mongoTemplate.indexOps(ProductDocument.class);
+
+        // Weights mirror the ones used by the regex match score query
+        indexOperations.ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+            .named("products_text")
+            .onField("name", 15F)
+            .onField("brand.name", 10F)
+            .onField("shortDescription", 5F)
+            .withDefaultLanguage("none")
+            .build());
+
+        // Indexes backing the search filters (ingredients and categories are multikey indexes)
+        indexOperations.ensureIndex(new Index()
+            .on("ingredients.id", Sort.Direction.ASC)
+            .named("products_ingredients_id"));
+        indexOperations.ensureIndex(new Index()
+            .on("categories.id", Sort.Direction.ASC)
+            .named("products_categories_id"));
+        indexOperations.ensureIndex(new Index()
+            .on("brand.id", Sort.Direction.ASC)
+            .on("rating", Sort.Direction.DESC)
+            .named("products_brand_id_rating"));
+        indexOperations.ensureIndex(new Index()
+            .on("provider.id", Sort.Direction.ASC)
+            .on("rating", Sort.Direction.DESC)
+            .named("products_provider_id_rating"));
+        indexOperations.ensureIndex(new Index()
+            .on("rating", Sort.Direction.DESC)
+            .named("products_rating"));
+    }
+}
@@ -0,0 +1,32 @@
+package pl.edu.pw.mini.ingreedio.api.product.config;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.stereotype.Component;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+
+@Component
+@RequiredArgsConstructor
+public class ProductLikesCountInitializer {
+    private final MongoTemplate mongoTemplate;
+
+    // Products stored before likesCount was introduced get it computed from their likedBy set
+    @PostConstruct
+    protected void initLikesCount() {
+        mongoTemplate.updateMulti(
+            query(where("likesCount").exists(false)),
+            AggregationUpdate.update()
+                .set("likesCount")
+                .toValue(ArrayOperators.Size.lengthOfArray(
+                    ConditionalOperators.ifNull("likedBy").then(List.of()))),
+            ProductDocument.class);
+    }
+}
@@ -0,0 +1,63 @@
+package pl.edu.pw.mini.ingreedio.api.product.config;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.review.repository.ProductReviewsSummary;
+import pl.edu.pw.mini.ingreedio.api.review.repository.ReviewRepository;
+
+@Component
+@RequiredArgsConstructor
+public class ProductRatingsInitializer {
+    private final MongoTemplate mongoTemplate;
+    private final ReviewRepository reviewRepository;
+
+    // Products stored before the rating counters were introduced get them computed
+    // from the reviews table, and their per-user ratings map is dropped
+    @PostConstruct
+    protected void initRatings() {
+        if (!mongoTemplate.exists(query(where("rateCount").exists(false)),
+            ProductDocument.class)) {
+            return;
+        }
+
+        List<ProductReviewsSummary> summaries = reviewRepository.getProductReviewsSummaries();
+        if (!summaries.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, ProductDocument.class);
+
+            for (ProductReviewsSummary summary : summaries) {
+                int ratingSum = summary.getRatingSum().intValue();
+                int rateCount = summary.getRateCount().intValue();
+
+                bulkOperations.updateOne(
+                    query(where("_id").is(summary.getProductId()).and("rateCount").exists(false)),
+                    new Update()
+                        .set("ratingSum", ratingSum)
+                        .set("rateCount", rateCount)
+                        .set("opinionsCount", summary.getOpinionsCount().intValue())
+                        .set("rating", ratingSum / rateCount)
+                        .unset("ratings"));
+            }
+
+            bulkOperations.execute();
+        }
+
+        mongoTemplate.updateMulti(
+            query(where("rateCount").exists(false)),
+            new Update()
+                .set("ratingSum", 0)
+                .set("rateCount", 0)
+                .set("opinionsCount", 0)
+                .unset("ratings"),
+            ProductDocument.class);
+    }
+}
@@ -0,0 +1,24 @@
+package pl.edu.pw.mini.ingreedio.api.product.config;
+
+import java.util.Optional;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CustomizedProductRepository;
+import pl.edu.pw.mini.ingreedio.api.product.repository.ProductRepository;
+import pl.edu.pw.mini.ingreedio.api.product.repository.impl.LuceneProductRepository;
+
+@Configuration
+public class ProductSearchConfig {
+    // The search is performed by the Lucene index if it is enabled
+    // (product.search.engine=lucene), otherwise by the MongoDB aggregation pipeline
+    @Bean
+    @Primary
+    public CustomizedProductRepository productSearchRepository(
+        ProductRepository productRepository,
+        Optional<LuceneProductRepository> luceneProductRepository) {
+        return luceneProductRepository
+            .<CustomizedProductRepository>map(repository -> repository)
+            .orElse(productRepository);
+    }
+}
@@ -6,15 +6,16 @@ import lombok.Builder;
 
 @Builder
 public record ProductCriteria(
-        Set<String> ingredientsNamesToInclude,
-        Set<String> ingredientsNamesToExclude,
-        Set<String> brandsNamesToInclude,
-        Set<String> brandsNamesToExclude,
-        Set<String> providersNames,
-        Set<String> categoriesNames,
+        Set<Long> ingredientsIdsToInclude,
+        Set<Long> ingredientsIdsToExclude,
+        Set<Long> brandsIdsToInclude,
+        Set<Long> brandsIdsToExclude,
+        Set<Long> providersIds,
+        Set<Long> categoriesIds,
         Integer minRating,
         Set<String> phraseKeywords,
         List<ProductSortingCriteria> sortingCriteria,
         Boolean hasMatchScoreSortCriteria,
-        Boolean liked
+        Boolean liked,
+        Long userId
 ) {}
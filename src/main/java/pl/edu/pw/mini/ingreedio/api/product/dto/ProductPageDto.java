@@ -4,4 +4,8 @@ import java.util.List;
 import lombok.Builder;
 
 @Builder
-public record ProductPageDto(List<ProductViewDto> products, int totalPages) { }
+public record ProductPageDto(List<ProductViewDto> products,
+                             Integer totalPages,
+                             Long totalProducts,
+                             Boolean totalCapped,
+                             String nextCursor) { }
@@ -0,0 +1,6 @@
+package pl.edu.pw.mini.ingreedio.api.product.event;
+
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+
+// Published after a product has been added or modified in the database
+public record ProductChangedEvent(ProductDocument product) { }
@@ -0,0 +1,4 @@
+package pl.edu.pw.mini.ingreedio.api.product.event;
+
+// Published after a product has been removed from the database
+public record ProductDeletedEvent(long productId) { }
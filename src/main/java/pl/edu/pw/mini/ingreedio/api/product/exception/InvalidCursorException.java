@@ -0,0 +1,12 @@
+package pl.edu.pw.mini.ingreedio.api.product.exception;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+public class InvalidCursorException extends AbstractThrowableProblem {
+    public InvalidCursorException(String cursor) {
+        super(null, "Cursor is invalid",
+            Status.BAD_REQUEST,
+            "Cursor [" + cursor + "] does not match the requested search");
+    }
+}
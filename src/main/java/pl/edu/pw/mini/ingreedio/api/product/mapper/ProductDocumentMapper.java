@@ -0,0 +1,67 @@
+package pl.edu.pw.mini.ingreedio.api.product.mapper;
+
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import pl.edu.pw.mini.ingreedio.api.brand.model.Brand;
+import pl.edu.pw.mini.ingreedio.api.category.model.Category;
+import pl.edu.pw.mini.ingreedio.api.ingredient.model.Ingredient;
+import pl.edu.pw.mini.ingreedio.api.product.dto.ProductRequestDto;
+import pl.edu.pw.mini.ingreedio.api.product.model.BrandDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.CategoryDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.IngredientDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProviderDocument;
+import pl.edu.pw.mini.ingreedio.api.provider.model.Provider;
+
+@Service
+public class ProductDocumentMapper implements Function<ProductRequestDto, ProductDocument> {
+    @Override
+    public ProductDocument apply(ProductRequestDto productRequest) {
+        return apply(productRequest, null);
+    }
+
+    // The subdocuments contain the ids only, see ProductService::makeProductFieldsValid
+    public ProductDocument apply(ProductRequestDto productRequest, Long id) {
+        return ProductDocument.builder()
+            .id(id)
+            .name(productRequest.name())
+            .smallImageUrl(productRequest.smallImageUrl())
+            .largeImageUrl(productRequest.largeImageUrl())
+            .provider(productRequest.provider() == null ? null
+                : ProviderDocument.builder().id(productRequest.provider()).build())
+            .brand(productRequest.brand() == null ? null
+                : BrandDocument.builder().id(productRequest.brand()).build())
+            .categories(productRequest.categories() == null ? null
+                : productRequest.categories().stream()
+                    .map(categoryId -> CategoryDocument.builder().id(categoryId).build())
+                    .collect(Collectors.toSet()))
+            .shortDescription(productRequest.shortDescription())
+            .longDescription(productRequest.longDescription())
+            .volume(productRequest.volume())
+            .ingredients(productRequest.ingredients() == null ? null
+                : productRequest.ingredients().stream()
+                    .map(ingredientId -> IngredientDocument.builder().id(ingredientId).build())
+                    .collect(Collectors.toSet()))
+            .build();
+    }
+
+    public BrandDocument toDocument(Brand brand) {
+        return BrandDocument.builder().id(brand.getId()).name(brand.getName()).build();
+    }
+
+    public ProviderDocument toDocument(Provider provider) {
+        return ProviderDocument.builder().id(provider.getId()).name(provider.getName()).build();
+    }
+
+    public CategoryDocument toDocument(Category category) {
+        return CategoryDocument.builder().id(category.getId()).name(category.getName()).build();
+    }
+
+    public IngredientDocument toDocument(Ingredient ingredient) {
+        return IngredientDocument.builder()
+            .id(ingredient.getId())
+            .name(ingredient.getName())
+            .build();
+    }
+}
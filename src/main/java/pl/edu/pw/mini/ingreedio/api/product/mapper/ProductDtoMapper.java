@@ -0,0 +1,75 @@
+package pl.edu.pw.mini.ingreedio.api.product.mapper;
+
+import java.util.function.Function;
+import org.springframework.stereotype.Service;
+import pl.edu.pw.mini.ingreedio.api.brand.dto.BrandDto;
+import pl.edu.pw.mini.ingreedio.api.category.dto.CategoryDto;
+import pl.edu.pw.mini.ingreedio.api.ingredient.dto.IngredientDto;
+import pl.edu.pw.mini.ingreedio.api.product.dto.ProductDto;
+import pl.edu.pw.mini.ingreedio.api.product.dto.ProductViewDto;
+import pl.edu.pw.mini.ingreedio.api.product.model.BrandDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProviderDocument;
+import pl.edu.pw.mini.ingreedio.api.provider.dto.ProviderDto;
+
+@Service
+public class ProductDtoMapper implements Function<ProductDocument, ProductDto> {
+    @Override
+    public ProductDto apply(ProductDocument product) {
+        return apply(product, null);
+    }
+
+    public ProductDto apply(ProductDocument product, Boolean isLiked) {
+        return ProductDto.builder()
+            .id(product.getId())
+            .name(product.getName())
+            .largeImageUrl(product.getLargeImageUrl())
+            .provider(toProviderDto(product.getProvider()))
+            .brand(toBrandDto(product.getBrand()))
+            .categories(product.getCategories() == null ? null : product.getCategories().stream()
+                .map(category -> CategoryDto.builder()
+                    .id(category.getId())
+                    .name(category.getName())
+                    .build())
+                .toList())
+            .longDescription(product.getLongDescription())
+            .volume(product.getVolume())
+            .ingredients(product.getIngredients() == null ? null : product.getIngredients().stream()
+                .map(ingredient -> IngredientDto.builder()
+                    .id(ingredient.getId())
+                    .name(ingredient.getName())
+                    .build())
+                .toList())
+            .isLiked(isLiked)
+            .rating(product.getRating())
+            .build();
+    }
+
+    // The list view of a product, as returned by the search
+    public ProductViewDto toViewDto(ProductDocument product, Boolean isLiked) {
+        return ProductViewDto.builder()
+            .id(product.getId())
+            .name(product.getName())
+            .brand(toBrandDto(product.getBrand()))
+            .smallImageUrl(product.getSmallImageUrl())
+            .provider(toProviderDto(product.getProvider()))
+            .shortDescription(product.getShortDescription())
+            .isLiked(isLiked)
+            .rating(product.getRating())
+            .build();
+    }
+
+    private static BrandDto toBrandDto(BrandDocument brand) {
+        return brand == null ? null : BrandDto.builder()
+            .id(brand.getId())
+            .name(brand.getName())
+            .build();
+    }
+
+    private static ProviderDto toProviderDto(ProviderDocument provider) {
+        return provider == null ? null : ProviderDto.builder()
+            .id(provider.getId())
+            .name(provider.getName())
+            .build();
+    }
+}
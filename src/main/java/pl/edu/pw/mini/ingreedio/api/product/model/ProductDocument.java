@@ -1,6 +1,5 @@
 package pl.edu.pw.mini.ingreedio.api.product.model;
 
-import java.util.Map;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -60,11 +59,16 @@ public class ProductDocument {
     @Field
     private Integer ratingSum;
 
+    @Field
+    private Integer rateCount;
+
+    @Field
+    private Integer opinionsCount;
+
     @Field
     @Nullable
     private Set<Long> likedBy;
 
     @Field
-    @Nullable
-    private Map<Long, Integer> ratings;
+    private Integer likesCount;
 }
@@ -0,0 +1,26 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository;
+
+import java.util.List;
+import lombok.Getter;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Page whose total count may have been capped by the search engine.
+ *
+ * <p>If {@link #isTotalCapped()} returns true, {@link #getTotalElements()} is a lower bound of
+ * the real number of matching elements (e.g. "1000+").
+ */
+@Getter
+public class CappedPage<T> extends PageImpl<T> {
+    private final boolean totalCapped;
+
+    public CappedPage(List<T> content, Pageable pageable, long total, boolean totalCapped) {
+        super(content, pageable, total);
+        this.totalCapped = totalCapped;
+    }
+
+    public static <T> CappedPage<T> exact(List<T> content, Pageable pageable, long total) {
+        return new CappedPage<>(content, pageable, total, false);
+    }
+}
@@ -1,11 +1,16 @@
 package pl.edu.pw.mini.ingreedio.api.product.repository;
 
-import java.util.Optional;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductCriteria;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
 
 public interface CustomizedProductRepository {
-    Page<ProductDocument> getProductsMatchingCriteria(ProductCriteria criteria, Pageable pageable);
+    CappedPage<ProductDocument> getProductsMatchingCriteria(ProductCriteria criteria,
+                                                            Pageable pageable);
+
+    Window<ProductDocument> getProductsMatchingCriteria(ProductCriteria criteria,
+                                                        KeysetScrollPosition position,
+                                                        int limit);
 }
@@ -0,0 +1,10 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository;
+
+import java.util.Optional;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+
+public interface ProductPatchRepository {
+    // Sets the non-null fields of the patch in a single update and returns the updated product,
+    // the fields of the patch which are null (e.g. likedBy, ratings) are left untouched
+    Optional<ProductDocument> patchProduct(ProductDocument productPatch);
+}
@@ -0,0 +1,11 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository;
+
+import java.util.Optional;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+
+public interface ProductRatingsRepository {
+    // Applies the deltas to the rating counters and recomputes the rating in a single update,
+    // returns the updated product
+    Optional<ProductDocument> updateRatings(long id, int ratingSumDelta, int rateCountDelta,
+                                            int opinionsCountDelta);
+}
@@ -1,14 +1,30 @@
 package pl.edu.pw.mini.ingreedio.api.product.repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
 
 @Repository
 public interface ProductRepository
-    extends MongoRepository<ProductDocument, Long>, CustomizedProductRepository {
+    extends MongoRepository<ProductDocument, Long>, CustomizedProductRepository,
+    ProductPatchRepository, ProductRatingsRepository {
     Optional<ProductDocument> findById(long id);
 
+    Stream<ProductDocument> streamAllBy();
+
+    // Both updates match only when they change the likedBy set, so likesCount stays in sync
+    // with it and the returned number of modified documents is 0 for a repeated (un)like
+    @Query("{ '_id': ?0, 'likedBy': { '$ne': ?1 } }")
+    @Update("{ '$addToSet': { 'likedBy': ?1 }, '$inc': { 'likesCount': 1 } }")
+    long addLikedBy(long id, long userId);
+
+    @Query("{ '_id': ?0, 'likedBy': ?1 }")
+    @Update("{ '$pull': { 'likedBy': ?1 }, '$inc': { 'likesCount': -1 } }")
+    long removeLikedBy(long id, long userId);
+
     void deleteAll();
 }
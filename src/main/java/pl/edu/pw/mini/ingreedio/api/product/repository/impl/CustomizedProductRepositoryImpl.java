@@ -6,170 +6,457 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.stereotype.Repository;
 import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductCriteria;
+import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductSortingCriteria;
+import pl.edu.pw.mini.ingreedio.api.product.exception.InvalidCursorException;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CappedPage;
 import pl.edu.pw.mini.ingreedio.api.product.repository.CustomizedProductRepository;
 
 @RequiredArgsConstructor
 @Repository
 public class CustomizedProductRepositoryImpl implements CustomizedProductRepository {
+    private static final String PRODUCTS_COLLECTION = "products";
+    private static final String ID_FIELD = "_id";
+    private static final String TEXT_INDEX_LANGUAGE = "none";
+    private static final String[] LIST_VIEW_EXCLUDED_FIELDS = {
+        "longDescription", "largeImageUrl", "ratings"
+    };
+
     private final MongoTemplate mongoTemplate;
 
     @Value("${mongodb.query.create-match-score-query}")
     private Resource createMatchScoreQueryResource;
 
+    @Value("${mongodb.query.create-text-match-score-query}")
+    private Resource createTextMatchScoreQueryResource;
+
+    @Value("${mongodb.search.strategy:FACET}")
+    private ProductSearchStrategy searchStrategy;
+
+    // Maximum number of products counted by the facet strategy. If more products match
+    // the criteria, the returned total is capped (e.g. "1000+"). Zero means exact count.
+    @Value("${mongodb.search.count-limit:0}")
+    private long countLimit;
+
+    @Value("${mongodb.search.phrase-engine:REGEX}")
+    private ProductPhraseEngine phraseEngine;
+
     @Override
-    public Page<ProductDocument> getProductsMatchingCriteria(ProductCriteria productCriteria,
-                                                             Pageable pageable) {
+    public CappedPage<ProductDocument> getProductsMatchingCriteria(ProductCriteria productCriteria,
+                                                                   Pageable pageable) {
+        return switch (searchStrategy) {
+            case TWO_QUERY -> getProductsUsingTwoQueries(productCriteria, pageable);
+            case FACET -> getProductsUsingFacet(productCriteria, pageable);
+        };
+    }
 
-        Pattern phraseKeywordsRegExp = null;
-        if (productCriteria.phraseKeywords() != null) {
-            phraseKeywordsRegExp = Pattern.compile("\\b"
-                + String.join("|\\b", productCriteria.phraseKeywords()),
-                Pattern.CASE_INSENSITIVE);
-        }
+    @Override
+    public Window<ProductDocument> getProductsMatchingCriteria(ProductCriteria productCriteria,
+                                                               KeysetScrollPosition position,
+                                                               int limit) {
+        Sort sort = getSort(productCriteria);
 
-        // Stage 1: Filter the products basing on
-        // the ingredients, brand, provider, category, phrase, rating,
+        List<AggregationOperation> finalQueryOperations =
+            new ArrayList<>(getFilteringOperations(productCriteria));
+        getMatchScoreOperation(productCriteria).ifPresent(finalQueryOperations::add);
 
-        // Note: If a product contains ingredient to exclude and ingredient
-        // to include then the product is excluded (exclude has priority over include)
-        Criteria ingredientsFilteringCriteria = new Criteria().andOperator(
-            productCriteria.ingredientsNamesToInclude() != null
-                && !productCriteria.ingredientsNamesToInclude().isEmpty()
-                ? Criteria.where("ingredients.name")
-                .all(productCriteria.ingredientsNamesToInclude())
-                : new Criteria(),
-            productCriteria.ingredientsNamesToExclude() != null
-                && !productCriteria.ingredientsNamesToExclude().isEmpty()
-                ? Criteria.where("ingredients.name")
-                .nin(productCriteria.ingredientsNamesToExclude())
-                : new Criteria()
-        );
-
-        Criteria brandsFilteringCriteria = new Criteria();
-        if (productCriteria.brandsNamesToInclude() != null
-                && !productCriteria.brandsNamesToInclude().isEmpty()) {
-            brandsFilteringCriteria = Criteria.where("brand.name")
-                .in(productCriteria.brandsNamesToInclude());
-        } else if (productCriteria.brandsNamesToExclude() != null
-                && !productCriteria.brandsNamesToExclude().isEmpty()) {
-            brandsFilteringCriteria = Criteria.where("brand.name")
-                .nin(productCriteria.brandsNamesToExclude());
-        }
-
-        Criteria providerFilteringCriteria = productCriteria.providersNames() != null
-            && !productCriteria.providersNames().isEmpty()
-            ? Criteria.where("provider.name").in(productCriteria.providersNames())
-            : new Criteria();
-
-        Criteria categoriesFilteringCriteria = productCriteria.categoriesNames() != null
-            && !productCriteria.categoriesNames().isEmpty()
-            ? Criteria.where("categories.name").in(productCriteria.categoriesNames())
-            : new Criteria();
-
-        Criteria ratingFilteringCriteria = productCriteria.minRating() != null
-            ? Criteria.where("rating").gte(productCriteria.minRating())
-            : new Criteria();
-
-        Criteria phraseFilteringCriteria = new Criteria();
-        if (phraseKeywordsRegExp != null) {
-            phraseFilteringCriteria = new Criteria().orOperator(
-                Criteria.where("name").regex(phraseKeywordsRegExp),
-                Criteria.where("brand.name").regex(phraseKeywordsRegExp),
-                Criteria.where("shortDescription").regex(phraseKeywordsRegExp)
-            );
+        // Resume after the last returned product instead of skipping the previous pages
+        if (!position.isInitial()) {
+            for (Sort.Order order : sort) {
+                if (!position.getKeys().containsKey(order.getProperty())) {
+                    throw new InvalidCursorException(position.getKeys().toString());
+                }
+            }
+            finalQueryOperations.add(
+                Aggregation.match(getKeysetCriteria(sort, position.getKeys())));
         }
 
-        // Final operations List
-        List<AggregationOperation> finalQueryOperations = new ArrayList<>();
-
-        AggregationOperation filteringOperation = Aggregation.match(new Criteria().andOperator(
-            ingredientsFilteringCriteria,
-            brandsFilteringCriteria,
-            providerFilteringCriteria,
-            categoriesFilteringCriteria,
-            ratingFilteringCriteria,
-            phraseFilteringCriteria
-        ));
+        finalQueryOperations.add(Aggregation.sort(sort));
+        // One additional product is fetched to find out whether there is a next window
+        finalQueryOperations.add(Aggregation.limit(limit + 1));
+        finalQueryOperations.addAll(getListViewOperations(productCriteria));
 
-        finalQueryOperations.add(filteringOperation);
+        List<Document> results = mongoTemplate.aggregate(
+                Aggregation.newAggregation(
+                    finalQueryOperations.toArray(new AggregationOperation[0])),
+                PRODUCTS_COLLECTION, Document.class)
+            .getMappedResults();
 
-        // Stage 2: Prepare match score for each product (if there is match score sort operation)
-        if (productCriteria.hasMatchScoreSortCriteria() != null
-            && productCriteria.hasMatchScoreSortCriteria()
-            && phraseKeywordsRegExp != null) {
+        boolean hasNext = results.size() > limit;
+        List<Document> windowResults = hasNext ? results.subList(0, limit) : results;
 
-            try {
-                String queryString = String.format(
-                    createMatchScoreQueryResource.getContentAsString(UTF_8), phraseKeywordsRegExp
-                        .toString().replaceAll("\\\\", "\\\\\\\\"));
+        List<ProductDocument> products = windowResults.stream()
+            .map(product -> mongoTemplate.getConverter().read(ProductDocument.class, product))
+            .toList();
 
-                finalQueryOperations.add(new CustomQueryAggregationOperation(queryString));
-            } catch (IOException exception) {
-                throw new UncheckedIOException(exception);
+        return Window.from(products, index -> {
+            Document product = windowResults.get(index);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (Sort.Order order : sort) {
+                keys.put(order.getProperty(), product.get(order.getProperty()));
             }
-        }
+            return ScrollPosition.forward(keys);
+        }, hasNext);
+    }
 
-        // Stage 3: Sort the resultant products
-        if (productCriteria.sortingCriteria() != null) {
-            finalQueryOperations.addAll(productCriteria.sortingCriteria()
-                .stream()
-                .map(option -> Aggregation.sort(option.order(), option.byField().getFieldName()))
-                .toList());
-        }
+    private CappedPage<ProductDocument> getProductsUsingTwoQueries(ProductCriteria productCriteria,
+                                                                   Pageable pageable) {
+        List<AggregationOperation> filteringOperations = getFilteringOperations(productCriteria);
 
-        // Stage 4: Perform pagination on the final products list
-        finalQueryOperations.add(Aggregation.skip(
-            (long) pageable.getPageSize() * pageable.getPageNumber()));
-        finalQueryOperations.add(Aggregation.limit(pageable.getPageSize()));
+        List<AggregationOperation> finalQueryOperations = new ArrayList<>(filteringOperations);
+        finalQueryOperations.addAll(getSortingOperations(productCriteria));
+        finalQueryOperations.addAll(getPaginationOperations(pageable));
+        finalQueryOperations.addAll(getListViewOperations(productCriteria));
 
         try {
             // Query 1: Find total product count (only filtering is required)
+            List<AggregationOperation> totalProductsCountOperations =
+                new ArrayList<>(filteringOperations);
+            totalProductsCountOperations.add(
+                Aggregation.group().count().as("totalProductsCount"));
+
             Aggregation totalProductsCountAggregation = Aggregation.newAggregation(
-                filteringOperation,
-                Aggregation.group().count().as("totalProductsCount")
-            );
+                totalProductsCountOperations.toArray(new AggregationOperation[0]));
 
             Integer totalProductsCount =
                 (Integer) mongoTemplate.aggregate(totalProductsCountAggregation,
-                        "products", Map.class)
+                        PRODUCTS_COLLECTION, Map.class)
                     .getMappedResults().getFirst().get("totalProductsCount");
 
-
             // Query 2: Get products basing on the criteria
             Aggregation productsAggregation = Aggregation
                 .newAggregation(finalQueryOperations.toArray(new AggregationOperation[0]));
 
             List<ProductDocument> products = mongoTemplate.aggregate(productsAggregation,
-                    "products", ProductDocument.class)
+                    PRODUCTS_COLLECTION, ProductDocument.class)
                 .getMappedResults();
 
-            return new PageImpl<>(
+            return CappedPage.exact(
                 products,
                 pageable,
                 totalProductsCount == null ? 0 : totalProductsCount);
         } catch (NoSuchElementException noSuchElementException) {
-            return new PageImpl<>(
+            return CappedPage.exact(
                 Collections.emptyList(),
                 pageable,
                 0
             );
         }
     }
+
+    private CappedPage<ProductDocument> getProductsUsingFacet(ProductCriteria productCriteria,
+                                                              Pageable pageable) {
+        List<AggregationOperation> filteringOperations = getFilteringOperations(productCriteria);
+
+        // Without any filtering and with approximate counting allowed,
+        // the count is taken from the collection metadata
+        boolean useEstimatedCount = filteringOperations.isEmpty() && countLimit > 0;
+
+        List<AggregationOperation> productsOperations =
+            new ArrayList<>(getPaginationOperations(pageable));
+        productsOperations.addAll(getListViewOperations(productCriteria));
+
+        FacetOperation facetOperation = Aggregation
+            .facet(productsOperations.toArray(new AggregationOperation[0]))
+            .as("products");
+
+        if (!useEstimatedCount) {
+            List<AggregationOperation> countOperations = new ArrayList<>();
+            if (countLimit > 0) {
+                // Stop counting after the limit is exceeded
+                countOperations.add(Aggregation.limit(countLimit + 1));
+            }
+            countOperations.add(Aggregation.count().as("count"));
+
+            facetOperation = facetOperation
+                .and(countOperations.toArray(new AggregationOperation[0]))
+                .as("totalCount");
+        }
+
+        // The products are sorted before the $facet stage, as the sort inside a sub-pipeline
+        // of $facet can never be served by an index. The match score is needed to sort all the
+        // matching products, so it is computed once before the sort as well
+        List<AggregationOperation> finalQueryOperations = new ArrayList<>(filteringOperations);
+        finalQueryOperations.addAll(getSortingOperations(productCriteria));
+        finalQueryOperations.add(facetOperation);
+
+        Document result = mongoTemplate.aggregate(
+                Aggregation.newAggregation(
+                    finalQueryOperations.toArray(new AggregationOperation[0])),
+                PRODUCTS_COLLECTION, Document.class)
+            .getUniqueMappedResult();
+
+        if (result == null) {
+            return CappedPage.exact(Collections.emptyList(), pageable, 0);
+        }
+
+        List<ProductDocument> products = result.getList("products", Document.class)
+            .stream()
+            .map(product -> mongoTemplate.getConverter().read(ProductDocument.class, product))
+            .toList();
+
+        long totalProductsCount;
+        if (useEstimatedCount) {
+            totalProductsCount = mongoTemplate.estimatedCount(PRODUCTS_COLLECTION);
+        } else {
+            List<Document> totalCount = result.getList("totalCount", Document.class);
+            totalProductsCount = totalCount.isEmpty()
+                ? 0 : totalCount.getFirst().get("count", Number.class).longValue();
+        }
+
+        boolean totalCapped = countLimit > 0 && totalProductsCount > countLimit;
+
+        return new CappedPage<>(
+            products,
+            pageable,
+            totalCapped ? countLimit : totalProductsCount,
+            totalCapped);
+    }
+
+    private boolean hasPhraseKeywords(ProductCriteria productCriteria) {
+        return productCriteria.phraseKeywords() != null
+            && !productCriteria.phraseKeywords().isEmpty();
+    }
+
+    private Pattern getPhraseKeywordsRegExp(ProductCriteria productCriteria) {
+        return Pattern.compile("\\b"
+                + String.join("|\\b", productCriteria.phraseKeywords()),
+            Pattern.CASE_INSENSITIVE);
+    }
+
+    private Optional<TextCriteria> getPhraseKeywordsTextCriteria(ProductCriteria productCriteria) {
+        // Leading dashes and quotes would be interpreted as negations and phrases
+        String[] words = productCriteria.phraseKeywords()
+            .stream()
+            .map(keyword -> keyword.replaceAll("^-+|\"", ""))
+            .filter(keyword -> !keyword.isBlank())
+            .toArray(String[]::new);
+
+        if (words.length == 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(TextCriteria.forLanguage(TEXT_INDEX_LANGUAGE).matchingAny(words));
+    }
+
+    // The stages are package-private, so that the pipeline construction can be benchmarked
+
+    // Stage 1: Filter the products basing on
+    // the ingredients, brand, provider, category, phrase, rating
+    List<AggregationOperation> getFilteringOperations(ProductCriteria productCriteria) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        List<Criteria> filteringCriteria = new ArrayList<>();
+
+        // Note: The $text query has to be placed in the first stage of the pipeline
+        if (phraseEngine == ProductPhraseEngine.TEXT && hasPhraseKeywords(productCriteria)) {
+            getPhraseKeywordsTextCriteria(productCriteria)
+                .ifPresent(textCriteria -> operations.add(Aggregation.match(textCriteria)));
+        }
+
+        // Note: If a product contains ingredient to exclude and ingredient
+        // to include then the product is excluded (exclude has priority over include)
+        if (productCriteria.ingredientsIdsToInclude() != null
+                && !productCriteria.ingredientsIdsToInclude().isEmpty()) {
+            filteringCriteria.add(Criteria.where("ingredients.id")
+                .all(productCriteria.ingredientsIdsToInclude()));
+        }
+
+        if (productCriteria.ingredientsIdsToExclude() != null
+                && !productCriteria.ingredientsIdsToExclude().isEmpty()) {
+            filteringCriteria.add(Criteria.where("ingredients.id")
+                .nin(productCriteria.ingredientsIdsToExclude()));
+        }
+
+        if (productCriteria.brandsIdsToInclude() != null
+                && !productCriteria.brandsIdsToInclude().isEmpty()) {
+            filteringCriteria.add(Criteria.where("brand.id")
+                .in(productCriteria.brandsIdsToInclude()));
+        } else if (productCriteria.brandsIdsToExclude() != null
+                && !productCriteria.brandsIdsToExclude().isEmpty()) {
+            filteringCriteria.add(Criteria.where("brand.id")
+                .nin(productCriteria.brandsIdsToExclude()));
+        }
+
+        if (productCriteria.providersIds() != null
+                && !productCriteria.providersIds().isEmpty()) {
+            filteringCriteria.add(Criteria.where("provider.id")
+                .in(productCriteria.providersIds()));
+        }
+
+        if (productCriteria.categoriesIds() != null
+                && !productCriteria.categoriesIds().isEmpty()) {
+            filteringCriteria.add(Criteria.where("categories.id")
+                .in(productCriteria.categoriesIds()));
+        }
+
+        if (productCriteria.minRating() != null) {
+            filteringCriteria.add(Criteria.where("rating").gte(productCriteria.minRating()));
+        }
+
+        if (phraseEngine == ProductPhraseEngine.REGEX && hasPhraseKeywords(productCriteria)) {
+            Pattern phraseKeywordsRegExp = getPhraseKeywordsRegExp(productCriteria);
+            filteringCriteria.add(new Criteria().orOperator(
+                Criteria.where("name").regex(phraseKeywordsRegExp),
+                Criteria.where("brand.name").regex(phraseKeywordsRegExp),
+                Criteria.where("shortDescription").regex(phraseKeywordsRegExp)
+            ));
+        }
+
+        if (!filteringCriteria.isEmpty()) {
+            operations.add(Aggregation.match(new Criteria().andOperator(filteringCriteria)));
+        }
+
+        return operations;
+    }
+
+    List<AggregationOperation> getSortingOperations(ProductCriteria productCriteria) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        getMatchScoreOperation(productCriteria).ifPresent(operations::add);
+        operations.add(Aggregation.sort(getSort(productCriteria)));
+        return operations;
+    }
+
+    // Stage 2: Prepare match score for each product (if there is match score sort operation)
+    private Optional<AggregationOperation> getMatchScoreOperation(ProductCriteria productCriteria) {
+        if (productCriteria.hasMatchScoreSortCriteria() == null
+            || !productCriteria.hasMatchScoreSortCriteria()
+            || !hasPhraseKeywords(productCriteria)) {
+            return Optional.empty();
+        }
+
+        try {
+            if (phraseEngine == ProductPhraseEngine.TEXT) {
+                // The text score is available only if the $text query has been performed
+                if (getPhraseKeywordsTextCriteria(productCriteria).isEmpty()) {
+                    return Optional.empty();
+                }
+
+                return Optional.of(new CustomQueryAggregationOperation(
+                    createTextMatchScoreQueryResource.getContentAsString(UTF_8)));
+            }
+
+            Pattern phraseKeywordsRegExp = getPhraseKeywordsRegExp(productCriteria);
+            String queryString = String.format(
+                createMatchScoreQueryResource.getContentAsString(UTF_8), phraseKeywordsRegExp
+                    .toString().replaceAll("\\\\", "\\\\\\\\"));
+
+            return Optional.of(new CustomQueryAggregationOperation(queryString));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    // Stage 3: Sort the resultant products
+    // The criteria are combined into a single sort (the first one is the most significant)
+    // and the product id is used as a tiebreaker, so that the order is deterministic
+    private Sort getSort(ProductCriteria productCriteria) {
+        List<Sort.Order> orders = new ArrayList<>();
+        Set<String> sortedFields = new HashSet<>();
+
+        if (productCriteria.sortingCriteria() != null) {
+            for (ProductSortingCriteria option : productCriteria.sortingCriteria()) {
+                String fieldName = option.byField().getFieldName();
+                if (sortedFields.add(fieldName)) {
+                    orders.add(new Sort.Order(option.order(), fieldName));
+                }
+            }
+        }
+        orders.add(Sort.Order.asc(ID_FIELD));
+
+        return Sort.by(orders);
+    }
+
+    // Matches the products placed after the position in the given sort order. Missing values
+    // are treated as nulls, which MongoDB places before any other value.
+    private Criteria getKeysetCriteria(Sort sort, Map<String, Object> keys) {
+        List<Criteria> alternatives = new ArrayList<>();
+        List<Criteria> equalities = new ArrayList<>();
+
+        for (Sort.Order order : sort) {
+            String field = order.getProperty();
+            Object value = keys.get(field);
+
+            getAfterValueCriteria(field, value, order.getDirection()).ifPresent(after -> {
+                List<Criteria> alternative = new ArrayList<>(equalities);
+                alternative.add(after);
+                alternatives.add(new Criteria().andOperator(alternative));
+            });
+
+            equalities.add(Criteria.where(field).is(value));
+        }
+
+        return new Criteria().orOperator(alternatives);
+    }
+
+    private Optional<Criteria> getAfterValueCriteria(String field, Object value,
+                                                     Sort.Direction direction) {
+        if (value == null) {
+            return direction.isAscending()
+                ? Optional.of(Criteria.where(field).ne(null))
+                : Optional.empty();
+        }
+
+        return direction.isAscending()
+            ? Optional.of(Criteria.where(field).gt(value))
+            : Optional.of(new Criteria().orOperator(
+                Criteria.where(field).lt(value),
+                Criteria.where(field).is(null)));
+    }
+
+    // Stage 4: Perform pagination on the final products list
+    List<AggregationOperation> getPaginationOperations(Pageable pageable) {
+        return List.of(
+            Aggregation.skip((long) pageable.getPageSize() * pageable.getPageNumber()),
+            Aggregation.limit(pageable.getPageSize()));
+    }
+
+    // The search results are listed only, so the fields shown only in the product details
+    // are skipped, and the likedBy array is reduced in the database to the current user's id
+    // (if the product is liked), instead of transferring the ids of all the liking users.
+    // The Lucene repository fetches its pages with the same operations
+    static List<AggregationOperation> getListViewOperations(ProductCriteria productCriteria) {
+        Long userId = productCriteria.userId();
+
+        AggregationOperation likedByOperation = userId == null
+            ? Aggregation.addFields().addFieldWithValue("likedBy", List.of()).build()
+            : Aggregation.addFields().addField("likedBy")
+                .withValue(ConditionalOperators
+                    .when(ArrayOperators.arrayOf(ConditionalOperators.ifNull("likedBy")
+                            .then(List.of()))
+                        .containsValue(userId))
+                    .then(List.of(userId))
+                    .otherwise(List.of()))
+                .build();
+
+        return List.of(
+            likedByOperation,
+            Aggregation.project().andExclude(LIST_VIEW_EXCLUDED_FIELDS));
+    }
 }
@@ -0,0 +1,540 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Repository;
+import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductCriteria;
+import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductSortingCriteria;
+import pl.edu.pw.mini.ingreedio.api.product.criteria.SortingBy;
+import pl.edu.pw.mini.ingreedio.api.product.event.ProductChangedEvent;
+import pl.edu.pw.mini.ingreedio.api.product.event.ProductDeletedEvent;
+import pl.edu.pw.mini.ingreedio.api.product.exception.InvalidCursorException;
+import pl.edu.pw.mini.ingreedio.api.product.model.BrandDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.CategoryDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.IngredientDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProviderDocument;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CappedPage;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CustomizedProductRepository;
+import pl.edu.pw.mini.ingreedio.api.product.repository.ProductRepository;
+
+// In-memory Lucene index of the products. The index is built from the database on startup
+// and kept up to date with the product events. Only the ids of the requested page are taken
+// from the index, the products themselves are fetched from the database.
+@Repository
+@ConditionalOnProperty(name = "product.search.engine", havingValue = "lucene")
+@RequiredArgsConstructor
+public class LuceneProductRepository implements CustomizedProductRepository {
+    private static final String ID_FIELD = "id";
+    private static final String ID_SORT_FIELD = "idSort";
+    private static final String NAME_FIELD = "name";
+    private static final String BRAND_NAME_FIELD = "brandName";
+    private static final String SHORT_DESCRIPTION_FIELD = "shortDescription";
+    private static final String INGREDIENT_FIELD = "ingredient";
+    private static final String BRAND_FIELD = "brand";
+    private static final String PROVIDER_FIELD = "provider";
+    private static final String CATEGORY_FIELD = "category";
+    private static final String RATING_FIELD = "rating";
+    private static final String RATING_SORT_FIELD = "ratingSort";
+    private static final String RATE_COUNT_SORT_FIELD = "rateCountSort";
+    private static final String OPINIONS_COUNT_SORT_FIELD = "opinionsCountSort";
+
+    private static final Map<SortingBy, String> NUMERIC_SORT_FIELDS = Map.of(
+        SortingBy.RATING, RATING_SORT_FIELD,
+        SortingBy.RATE_COUNT, RATE_COUNT_SORT_FIELD,
+        SortingBy.OPINIONS_COUNT, OPINIONS_COUNT_SORT_FIELD
+    );
+
+    // Boosts mirror the weights used by the MongoDB match score
+    private static final Map<String, Float> PHRASE_FIELDS_BOOSTS = Map.of(
+        NAME_FIELD, 15F,
+        BRAND_NAME_FIELD, 10F,
+        SHORT_DESCRIPTION_FIELD, 5F);
+
+    // Keywords are matched as word prefixes, so the prefixes of the words are indexed
+    private static final int MAX_INDEXED_PREFIX_LENGTH = 20;
+
+    // Cursor keys are shared with the MongoDB implementation
+    private static final String ID_CURSOR_KEY = "_id";
+
+    // Missing numeric values are placed before any other value, as in MongoDB
+    private static final long MISSING_VALUE = Long.MIN_VALUE;
+
+    private final ProductRepository productRepository;
+    private final MongoTemplate mongoTemplate;
+
+    private final Analyzer indexAnalyzer = createAnalyzer(true);
+    private final Analyzer queryAnalyzer = createAnalyzer(false);
+
+    private Directory directory;
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+
+    @PostConstruct
+    protected void initIndex() throws IOException {
+        directory = new ByteBuffersDirectory();
+        indexWriter = new IndexWriter(directory, new IndexWriterConfig(indexAnalyzer));
+
+        try (Stream<ProductDocument> products = productRepository.streamAllBy()) {
+            Iterator<ProductDocument> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                indexWriter.addDocument(toDocument(iterator.next()));
+            }
+        }
+
+        searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    @PreDestroy
+    protected void closeIndex() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductDocument product = event.product();
+        write(writer -> writer.updateDocument(
+            new Term(ID_FIELD, String.valueOf(product.getId())), toDocument(product)));
+    }
+
+    @EventListener
+    public void onProductDeleted(ProductDeletedEvent event) {
+        write(writer -> writer.deleteDocuments(
+            new Term(ID_FIELD, String.valueOf(event.productId()))));
+    }
+
+    @Override
+    public CappedPage<ProductDocument> getProductsMatchingCriteria(ProductCriteria productCriteria,
+                                                                   Pageable pageable) {
+        Query query = getQuery(productCriteria);
+        Sort sort = getSort(productCriteria);
+        int offset = (int) pageable.getOffset();
+
+        return search(searcher -> {
+            int totalProductsCount = searcher.count(query);
+            if (offset >= totalProductsCount) {
+                return CappedPage.exact(Collections.emptyList(), pageable, totalProductsCount);
+            }
+
+            ScoreDoc[] scoreDocs = searcher
+                .search(query, offset + pageable.getPageSize(), sort, false)
+                .scoreDocs;
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = offset; i < scoreDocs.length; i++) {
+                ids.add(getProductId((FieldDoc) scoreDocs[i]));
+            }
+
+            Map<Long, ProductDocument> products = getProductsByIds(ids, productCriteria);
+
+            return CappedPage.exact(
+                ids.stream().map(products::get).filter(Objects::nonNull).toList(),
+                pageable,
+                totalProductsCount);
+        });
+    }
+
+    @Override
+    public Window<ProductDocument> getProductsMatchingCriteria(ProductCriteria productCriteria,
+                                                               KeysetScrollPosition position,
+                                                               int limit) {
+        Query query = getQuery(productCriteria);
+        Sort sort = getSort(productCriteria);
+
+        return search(searcher -> {
+            FieldDoc after = position.isInitial() ? null : getFieldDoc(searcher, sort,
+                position.getKeys());
+
+            // One additional product is fetched to find out whether there is a next window
+            ScoreDoc[] scoreDocs = searcher.searchAfter(after, query, limit + 1, sort, false)
+                .scoreDocs;
+
+            boolean hasNext = scoreDocs.length > limit;
+            List<FieldDoc> fieldDocs = new ArrayList<>();
+            for (int i = 0; i < Math.min(scoreDocs.length, limit); i++) {
+                fieldDocs.add((FieldDoc) scoreDocs[i]);
+            }
+
+            Map<Long, ProductDocument> productsByIds = getProductsByIds(fieldDocs.stream()
+                .map(this::getProductId)
+                .toList(), productCriteria);
+
+            // Products removed from the database in the meantime are skipped
+            fieldDocs.removeIf(fieldDoc -> !productsByIds.containsKey(getProductId(fieldDoc)));
+
+            return Window.from(
+                fieldDocs.stream().map(fieldDoc -> productsByIds.get(getProductId(fieldDoc)))
+                    .toList(),
+                index -> ScrollPosition.forward(getCursorKeys(sort, fieldDocs.get(index))),
+                hasNext);
+        });
+    }
+
+    private Query getQuery(ProductCriteria productCriteria) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER);
+
+        // Note: If a product contains ingredient to exclude and ingredient
+        // to include then the product is excluded (exclude has priority over include)
+        if (productCriteria.ingredientsIdsToInclude() != null) {
+            productCriteria.ingredientsIdsToInclude().forEach(ingredient -> builder.add(
+                new TermQuery(new Term(INGREDIENT_FIELD, String.valueOf(ingredient))),
+                BooleanClause.Occur.FILTER));
+        }
+
+        if (productCriteria.ingredientsIdsToExclude() != null) {
+            productCriteria.ingredientsIdsToExclude().forEach(ingredient -> builder.add(
+                new TermQuery(new Term(INGREDIENT_FIELD, String.valueOf(ingredient))),
+                BooleanClause.Occur.MUST_NOT));
+        }
+
+        if (productCriteria.brandsIdsToInclude() != null
+                && !productCriteria.brandsIdsToInclude().isEmpty()) {
+            builder.add(getAnyTermQuery(BRAND_FIELD, productCriteria.brandsIdsToInclude()),
+                BooleanClause.Occur.FILTER);
+        } else if (productCriteria.brandsIdsToExclude() != null) {
+            productCriteria.brandsIdsToExclude().forEach(brand -> builder.add(
+                new TermQuery(new Term(BRAND_FIELD, String.valueOf(brand))),
+                BooleanClause.Occur.MUST_NOT));
+        }
+
+        if (productCriteria.providersIds() != null
+                && !productCriteria.providersIds().isEmpty()) {
+            builder.add(getAnyTermQuery(PROVIDER_FIELD, productCriteria.providersIds()),
+                BooleanClause.Occur.FILTER);
+        }
+
+        if (productCriteria.categoriesIds() != null
+                && !productCriteria.categoriesIds().isEmpty()) {
+            builder.add(getAnyTermQuery(CATEGORY_FIELD, productCriteria.categoriesIds()),
+                BooleanClause.Occur.FILTER);
+        }
+
+        if (productCriteria.minRating() != null) {
+            builder.add(IntPoint.newRangeQuery(RATING_FIELD, productCriteria.minRating(),
+                Integer.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+
+        if (productCriteria.phraseKeywords() != null) {
+            getPhraseQuery(productCriteria.phraseKeywords())
+                .ifPresent(phraseQuery -> builder.add(phraseQuery, BooleanClause.Occur.MUST));
+        }
+
+        return builder.build();
+    }
+
+    private Query getAnyTermQuery(String field, Collection<Long> values) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        values.forEach(value -> builder.add(new TermQuery(new Term(field, String.valueOf(value))),
+            BooleanClause.Occur.SHOULD));
+        return builder.build();
+    }
+
+    // Matches products containing at least one of the keywords, scored with BM25
+    private Optional<Query> getPhraseQuery(Collection<String> keywords) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean hasTerms = false;
+
+        for (String keyword : keywords) {
+            for (String token : analyze(keyword)) {
+                for (Map.Entry<String, Float> fieldBoost : PHRASE_FIELDS_BOOSTS.entrySet()) {
+                    builder.add(new BoostQuery(
+                        new TermQuery(new Term(fieldBoost.getKey(), token)),
+                        fieldBoost.getValue()), BooleanClause.Occur.SHOULD);
+                    hasTerms = true;
+                }
+            }
+        }
+
+        return hasTerms ? Optional.of(builder.build()) : Optional.empty();
+    }
+
+    // The criteria are combined into a single sort (the first one is the most significant)
+    // and the product id is used as a tiebreaker, so that the order is deterministic
+    private Sort getSort(ProductCriteria productCriteria) {
+        List<SortField> sortFields = new ArrayList<>();
+        Set<SortingBy> sortedBy = EnumSet.noneOf(SortingBy.class);
+
+        if (productCriteria.sortingCriteria() != null) {
+            for (ProductSortingCriteria option : productCriteria.sortingCriteria()) {
+                if (sortedBy.add(option.byField())) {
+                    getSortField(option).ifPresent(sortFields::add);
+                }
+            }
+        }
+        sortFields.add(new SortField(ID_SORT_FIELD, SortField.Type.LONG));
+
+        return new Sort(sortFields.toArray(new SortField[0]));
+    }
+
+    private Optional<SortField> getSortField(ProductSortingCriteria option) {
+        boolean descending = option.order().isDescending();
+
+        return switch (option.byField()) {
+            case RATING, RATE_COUNT, OPINIONS_COUNT -> {
+                SortField sortField = new SortField(NUMERIC_SORT_FIELDS.get(option.byField()),
+                    SortField.Type.LONG, descending);
+                sortField.setMissingValue(MISSING_VALUE);
+                yield Optional.of(sortField);
+            }
+            // Scores are sorted in descending order unless reversed
+            case MATCH_SCORE -> Optional.of(new SortField(null, SortField.Type.SCORE,
+                !descending));
+        };
+    }
+
+    private String getCursorKey(SortField sortField) {
+        if (sortField.getType() == SortField.Type.SCORE) {
+            return SortingBy.MATCH_SCORE.getFieldName();
+        }
+
+        return NUMERIC_SORT_FIELDS.entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().equals(sortField.getField()))
+            .map(entry -> entry.getKey().getFieldName())
+            .findFirst()
+            .orElse(ID_CURSOR_KEY);
+    }
+
+    private Map<String, Object> getCursorKeys(Sort sort, FieldDoc fieldDoc) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        SortField[] sortFields = sort.getSort();
+
+        for (int i = 0; i < sortFields.length; i++) {
+            Object value = fieldDoc.fields[i];
+            keys.put(getCursorKey(sortFields[i]),
+                Long.valueOf(MISSING_VALUE).equals(value) ? null : value);
+        }
+
+        return keys;
+    }
+
+    private FieldDoc getFieldDoc(IndexSearcher searcher, Sort sort, Map<String, Object> keys) {
+        SortField[] sortFields = sort.getSort();
+        Object[] fields = new Object[sortFields.length];
+
+        for (int i = 0; i < sortFields.length; i++) {
+            String key = getCursorKey(sortFields[i]);
+            Object value = keys.get(key);
+
+            if (!keys.containsKey(key)
+                || (value == null && sortFields[i].getType() == SortField.Type.SCORE)) {
+                throw new InvalidCursorException(keys.toString());
+            }
+
+            if (sortFields[i].getType() == SortField.Type.SCORE) {
+                fields[i] = ((Number) value).floatValue();
+            } else {
+                fields[i] = value == null ? MISSING_VALUE : ((Number) value).longValue();
+            }
+        }
+
+        // The product id is unique, so the document number is used only to skip
+        // the product pointed by the cursor itself
+        return new FieldDoc(searcher.getIndexReader().maxDoc() - 1, Float.NaN, fields);
+    }
+
+    private long getProductId(FieldDoc fieldDoc) {
+        return (Long) fieldDoc.fields[fieldDoc.fields.length - 1];
+    }
+
+    // The products are fetched in the list view, the same as the MongoDB search results
+    private Map<Long, ProductDocument> getProductsByIds(List<Long> ids,
+                                                        ProductCriteria productCriteria) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(Criteria.where("_id").in(ids)));
+        operations.addAll(CustomizedProductRepositoryImpl.getListViewOperations(productCriteria));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(operations),
+                ProductDocument.class, ProductDocument.class)
+            .getMappedResults()
+            .stream()
+            .collect(Collectors.toMap(ProductDocument::getId, Function.identity()));
+    }
+
+    private Document toDocument(ProductDocument product) {
+        Document document = new Document();
+
+        document.add(new StringField(ID_FIELD, String.valueOf(product.getId()), Field.Store.NO));
+        document.add(new NumericDocValuesField(ID_SORT_FIELD, product.getId()));
+
+        addTextField(document, NAME_FIELD, product.getName());
+        addTextField(document, SHORT_DESCRIPTION_FIELD, product.getShortDescription());
+
+        BrandDocument brand = product.getBrand();
+        if (brand != null) {
+            addTextField(document, BRAND_NAME_FIELD, brand.getName());
+            addIdField(document, BRAND_FIELD, brand.getId());
+        }
+
+        ProviderDocument provider = product.getProvider();
+        if (provider != null) {
+            addIdField(document, PROVIDER_FIELD, provider.getId());
+        }
+
+        if (product.getCategories() != null) {
+            for (CategoryDocument category : product.getCategories()) {
+                addIdField(document, CATEGORY_FIELD, category.getId());
+            }
+        }
+
+        if (product.getIngredients() != null) {
+            for (IngredientDocument ingredient : product.getIngredients()) {
+                addIdField(document, INGREDIENT_FIELD, ingredient.getId());
+            }
+        }
+
+        if (product.getRating() != null) {
+            document.add(new IntPoint(RATING_FIELD, product.getRating()));
+            document.add(new NumericDocValuesField(RATING_SORT_FIELD, product.getRating()));
+        }
+
+        if (product.getRateCount() != null) {
+            document.add(new NumericDocValuesField(RATE_COUNT_SORT_FIELD,
+                product.getRateCount()));
+        }
+
+        if (product.getOpinionsCount() != null) {
+            document.add(new NumericDocValuesField(OPINIONS_COUNT_SORT_FIELD,
+                product.getOpinionsCount()));
+        }
+
+        return document;
+    }
+
+    private void addTextField(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private void addIdField(Document document, String field, Long id) {
+        if (id != null) {
+            document.add(new StringField(field, String.valueOf(id), Field.Store.NO));
+        }
+    }
+
+    private List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+
+        try (TokenStream tokenStream = queryAnalyzer.tokenStream(NAME_FIELD, text)) {
+            CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            tokenStream.end();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return tokens;
+    }
+
+    private <T> T search(IndexSearchOperation<T> operation) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return operation.apply(searcher);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void write(IndexWriteOperation operation) {
+        try {
+            operation.apply(indexWriter);
+            // Changes become visible to the following searches immediately
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static Analyzer createAnalyzer(boolean indexPrefixes) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = new StandardTokenizer();
+                TokenStream tokenStream = new LowerCaseFilter(tokenizer);
+                if (indexPrefixes) {
+                    tokenStream = new EdgeNGramTokenFilter(tokenStream, 1,
+                        MAX_INDEXED_PREFIX_LENGTH, true);
+                }
+                return new TokenStreamComponents(tokenizer, tokenStream);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface IndexSearchOperation<T> {
+        T apply(IndexSearcher searcher) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface IndexWriteOperation {
+        void apply(IndexWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,40 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository.impl;
+
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.product.repository.ProductPatchRepository;
+
+@RequiredArgsConstructor
+public class ProductPatchRepositoryImpl implements ProductPatchRepository {
+    private static final String ID_FIELD = "_id";
+    private static final String CLASS_FIELD = "_class";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<ProductDocument> patchProduct(ProductDocument productPatch) {
+        // The converter skips the null fields, so only the patched fields are written
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(productPatch, fields);
+        fields.remove(ID_FIELD);
+        fields.remove(CLASS_FIELD);
+
+        Query query = Query.query(Criteria.where(ID_FIELD).is(productPatch.getId()));
+        if (fields.isEmpty()) {
+            return Optional.ofNullable(mongoTemplate.findOne(query, ProductDocument.class));
+        }
+
+        Update update = new Update();
+        fields.forEach(update::set);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), ProductDocument.class));
+    }
+}
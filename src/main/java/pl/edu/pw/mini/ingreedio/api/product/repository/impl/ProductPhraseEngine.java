@@ -0,0 +1,9 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository.impl;
+
+public enum ProductPhraseEngine {
+    // Case-insensitive $regex matching of the keywords as word prefixes (no index is used)
+    REGEX,
+
+    // $text query on the weighted text index of the products collection
+    TEXT
+}
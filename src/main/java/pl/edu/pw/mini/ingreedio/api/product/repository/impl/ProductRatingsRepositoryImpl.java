@@ -0,0 +1,50 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository.impl;
+
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+import pl.edu.pw.mini.ingreedio.api.product.repository.ProductRatingsRepository;
+
+@RequiredArgsConstructor
+public class ProductRatingsRepositoryImpl implements ProductRatingsRepository {
+    private static final String ID_FIELD = "_id";
+
+    private final MongoTemplate mongoTemplate;
+
+    // The rating is recomputed from the updated sum and count within the same update, and the
+    // legacy per-user ratings map is dropped, as the reviews are stored in the reviews table
+    @Override
+    public Optional<ProductDocument> updateRatings(long id, int ratingSumDelta,
+                                                   int rateCountDelta, int opinionsCountDelta) {
+        AggregationOperation setCounters = context -> new Document("$set", new Document()
+            .append("ratingSum", increment("ratingSum", ratingSumDelta))
+            .append("rateCount", increment("rateCount", rateCountDelta))
+            .append("opinionsCount", increment("opinionsCount", opinionsCountDelta)));
+        AggregationOperation setRating = context -> new Document("$set", new Document(
+            "rating", new Document("$cond", List.of(
+                new Document("$gt", List.of("$rateCount", 0)),
+                new Document("$toInt", new Document("$trunc",
+                    new Document("$divide", List.of("$ratingSum", "$rateCount")))),
+                0))));
+        AggregationOperation unsetRatings = context -> new Document("$unset", "ratings");
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            Query.query(Criteria.where(ID_FIELD).is(id)),
+            AggregationUpdate.from(List.of(setCounters, setRating, unsetRatings)),
+            FindAndModifyOptions.options().returnNew(true),
+            ProductDocument.class));
+    }
+
+    private static Document increment(String field, int delta) {
+        return new Document("$add", List.of(new Document("$ifNull", List.of("$" + field, 0)),
+            delta));
+    }
+}
@@ -0,0 +1,9 @@
+package pl.edu.pw.mini.ingreedio.api.product.repository.impl;
+
+public enum ProductSearchStrategy {
+    // Separate aggregations for the total count and for the requested page
+    TWO_QUERY,
+
+    // Single aggregation computing the requested page and the total count in one $facet stage
+    FACET
+}
@@ -1,9 +1,19 @@
 package pl.edu.pw.mini.ingreedio.api.product.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
 import java.util.Optional;
+import org.bson.BSONException;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import pl.edu.pw.mini.ingreedio.api.product.exception.InvalidCursorException;
 
 @Service
 public class PaginationService {
@@ -13,4 +23,44 @@ public class PaginationService {
     public PageRequest getPageRequest(Optional<Integer> pageNumber) {
         return PageRequest.of(pageNumber.orElse(0), pageSize);
     }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // The cursor is an opaque, URL-safe encoding of the sort keys of the last returned element.
+    // An empty cursor points at the beginning of the results.
+    public KeysetScrollPosition getScrollPosition(String cursor) throws InvalidCursorException {
+        if (cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            Document keys = Document.parse(
+                new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+
+            // Only plain values are accepted so that the cursor cannot inject query operators
+            for (Object value : keys.values()) {
+                if (value != null && !(value instanceof Number)) {
+                    throw new InvalidCursorException(cursor);
+                }
+            }
+
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | BSONException | JsonParseException exception) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public Optional<String> getNextCursor(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, Object> keys = ((KeysetScrollPosition) window
+            .positionAt(window.size() - 1)).getKeys();
+
+        return Optional.of(Base64.getUrlEncoder().withoutPadding().encodeToString(
+            new Document(keys).toJson().getBytes(StandardCharsets.UTF_8)));
+    }
 }
@@ -5,30 +5,15 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import pl.edu.pw.mini.ingreedio.api.brand.model.Brand;
-import pl.edu.pw.mini.ingreedio.api.brand.service.BrandService;
-import pl.edu.pw.mini.ingreedio.api.category.model.Category;
-import pl.edu.pw.mini.ingreedio.api.category.service.CategoryService;
-import pl.edu.pw.mini.ingreedio.api.ingredient.model.Ingredient;
-import pl.edu.pw.mini.ingreedio.api.ingredient.service.IngredientService;
 import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductCriteria;
 import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductSortingCriteria;
 import pl.edu.pw.mini.ingreedio.api.product.criteria.SortingBy;
 import pl.edu.pw.mini.ingreedio.api.product.exception.InvalidSortingOptionException;
-import pl.edu.pw.mini.ingreedio.api.provider.model.Provider;
-import pl.edu.pw.mini.ingreedio.api.provider.service.ProviderService;
 
 @Service
-@AllArgsConstructor
 public class ProductCriteriaService {
-    private final IngredientService ingredientService;
-    private final ProviderService providerService;
-    private final BrandService brandService;
-    private final CategoryService categoryService;
-
     public ProductCriteria getProductsCriteria(Optional<Set<Long>> ingredientsToExclude,
                                                Optional<Set<Long>> ingredientsToInclude,
                                                Optional<Integer> minRating,
@@ -38,25 +23,15 @@ public class ProductCriteriaService {
                                                Optional<Set<Long>> providers,
                                                Optional<Set<Long>> brandsToExclude,
                                                Optional<Set<Long>> brandsToInclude,
-                                               Optional<Set<Long>> categories)
+                                               Optional<Set<Long>> categories,
+                                               Optional<Long> userId)
         throws InvalidSortingOptionException {
 
         var builder = ProductCriteria.builder();
         builder.hasMatchScoreSortCriteria(false);
 
-        ingredientsToExclude.ifPresent(
-            ingredients -> builder.ingredientsNamesToExclude(ingredientService
-                .getIngredientsByIds(ingredients)
-                .stream()
-                .map(Ingredient::getName)
-                .collect(Collectors.toSet())));
-
-        ingredientsToInclude.ifPresent(
-            ingredients -> builder.ingredientsNamesToInclude(ingredientService
-                .getIngredientsByIds(ingredients)
-                .stream()
-                .map(Ingredient::getName)
-                .collect(Collectors.toSet())));
+        ingredientsToExclude.ifPresent(builder::ingredientsIdsToExclude);
+        ingredientsToInclude.ifPresent(builder::ingredientsIdsToInclude);
 
         minRating.ifPresent(builder::minRating);
 
@@ -68,35 +43,12 @@ public class ProductCriteriaService {
                 .collect(Collectors.toSet())));
 
         liked.ifPresent(builder::liked);
+        userId.ifPresent(builder::userId);
 
-        providers.ifPresent(
-            providerIds -> builder.providersNames(providerService
-                .getProvidersByIds(providerIds)
-                .stream()
-                .map(Provider::getName)
-                .collect(Collectors.toSet())));
-
-        brandsToExclude.ifPresent(
-            brandIds -> builder.brandsNamesToExclude(brandService
-                .getBrandsByIds(brandIds)
-                .stream()
-                .map(Brand::getName)
-                .collect(Collectors.toSet())));
-
-        brandsToInclude.ifPresent(
-            brandIds -> builder.brandsNamesToInclude(brandService
-                .getBrandsByIds(brandIds)
-                .stream()
-                .map(Brand::getName)
-                .collect(Collectors.toSet())));
-
-        categories.ifPresent(
-            categoryIds -> builder.categoriesNames(categoryService
-                .getCategoriesByIds(categoryIds)
-                .stream()
-                .map(Category::getName)
-                .collect(Collectors.toSet()))
-        );
+        providers.ifPresent(builder::providersIds);
+        brandsToExclude.ifPresent(builder::brandsIdsToExclude);
+        brandsToInclude.ifPresent(builder::brandsIdsToInclude);
+        categories.ifPresent(builder::categoriesIds);
 
         sortBy.ifPresent(sortingSignatures -> {
             List<ProductSortingCriteria> sortingCriteriaList =
@@ -1,31 +1,34 @@
 package pl.edu.pw.mini.ingreedio.api.product.service;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.auth.service.AuthService;
 import pl.edu.pw.mini.ingreedio.api.brand.exception.BrandNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.brand.service.BrandService;
 import pl.edu.pw.mini.ingreedio.api.category.service.CategoryService;
-import pl.edu.pw.mini.ingreedio.api.common.util.ModelPatcher;
 import pl.edu.pw.mini.ingreedio.api.ingredient.service.IngredientService;
 import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductCriteria;
+import pl.edu.pw.mini.ingreedio.api.product.event.ProductChangedEvent;
+import pl.edu.pw.mini.ingreedio.api.product.event.ProductDeletedEvent;
 import pl.edu.pw.mini.ingreedio.api.product.exception.ProductNotFoundException;
+import pl.edu.pw.mini.ingreedio.api.product.mapper.ProductDocumentMapper;
 import pl.edu.pw.mini.ingreedio.api.product.model.BrandDocument;
 import pl.edu.pw.mini.ingreedio.api.product.model.CategoryDocument;
 import pl.edu.pw.mini.ingreedio.api.product.model.IngredientDocument;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProviderDocument;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CappedPage;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CustomizedProductRepository;
 import pl.edu.pw.mini.ingreedio.api.product.repository.ProductRepository;
 import pl.edu.pw.mini.ingreedio.api.provider.exception.ProviderNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.provider.service.ProviderService;
@@ -39,6 +42,7 @@ import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductRepository productRepository;
+    private final CustomizedProductRepository productSearchRepository;
     private final SequenceGeneratorService sequenceGenerator;
     private final UserService userService;
 
@@ -49,11 +53,11 @@ public class ProductService {
 
     private final ReviewService reviewService;
 
-    private final ModelMapper modelMapper;
+    private final ProductDocumentMapper productDocumentMapper;
 
     private final AuthService authService;
 
-    private final ModelPatcher<ProductDocument> modelPatcher;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Transactional(readOnly = true)
@@ -81,30 +85,22 @@ public class ProductService {
             Set<IngredientDocument> ingredients = ingredientService
                 .getIngredientsByIds(ingredientIds)
                 .stream()
-                .map(ingredient -> modelMapper
-                    .map(ingredient, IngredientDocument.IngredientDocumentBuilder.class)
-                    .build())
+                .map(productDocumentMapper::toDocument)
                 .collect(Collectors.toSet());
 
             product.setIngredients(ingredients);
         }
 
         if (product.getBrand() != null) {
-            BrandDocument brand = modelMapper
-                .map(brandService
-                    .getBrandById(product.getBrand().getId()),
-                    BrandDocument.BrandDocumentBuilder.class)
-                .build();
+            BrandDocument brand = productDocumentMapper
+                .toDocument(brandService.getBrandById(product.getBrand().getId()));
 
             product.setBrand(brand);
         }
 
         if (product.getProvider() != null) {
-            ProviderDocument provider = modelMapper
-                .map(providerService
-                    .getProviderById(product.getProvider().getId()),
-                    ProviderDocument.ProviderDocumentBuilder.class)
-                .build();
+            ProviderDocument provider = productDocumentMapper
+                .toDocument(providerService.getProviderById(product.getProvider().getId()));
 
             product.setProvider(provider);
         }
@@ -119,9 +115,7 @@ public class ProductService {
             Set<CategoryDocument> categories = categoryService
                 .getCategoriesByIds(categoriesIds)
                 .stream()
-                .map(category -> modelMapper
-                    .map(category, CategoryDocument.CategoryDocumentBuilder.class)
-                    .build())
+                .map(productDocumentMapper::toDocument)
                 .collect(Collectors.toSet());
 
             product.setCategories(categories);
@@ -139,7 +133,13 @@ public class ProductService {
     @Transactional
     public ProductDocument addProduct(ProductDocument product) {
         product.setId(sequenceGenerator.generateSequence(ProductDocument.SEQUENCE_NAME));
-        return productRepository.save(product);
+        // The counters are stored right away, so the products are sorted by them along with
+        // the rest, and the initializers find no products to backfill
+        product.setRatingSum(0);
+        product.setRateCount(0);
+        product.setOpinionsCount(0);
+        product.setLikesCount(0);
+        return saveProduct(product);
     }
 
     @Transactional
@@ -151,24 +151,38 @@ public class ProductService {
         // TODO: remove all product reviews!!!
 
         productRepository.deleteById(product.getId());
+        eventPublisher.publishEvent(new ProductDeletedEvent(product.getId()));
     }
 
     @Transactional
     public ProductDocument updateProduct(ProductDocument productPatch)
         throws ProductNotFoundException {
-        ProductDocument product = getProductById(productPatch.getId());
+        // Only the non-null fields of the productPatch are set, within a single update, so the
+        // concurrent likes and reviews of the product are not overwritten
+        ProductDocument product = productRepository.patchProduct(productPatch)
+            .orElseThrow(() -> new ProductNotFoundException(productPatch.getId()));
 
-        // Update a field of the oldProduct only if corresponding field
-        // in the productPatch is not null
-        modelPatcher.patchAndExcludeFields(product, productPatch, Set.of("id"));
+        eventPublisher.publishEvent(new ProductChangedEvent(product));
+        return product;
+    }
+
+    private ProductDocument saveProduct(ProductDocument product) {
+        ProductDocument savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct));
+        return savedProduct;
+    }
 
-        return productRepository.save(product);
+    @Transactional(readOnly = true)
+    public CappedPage<ProductDocument> getProductsMatchingCriteria(ProductCriteria criteria,
+                                                                   PageRequest pageRequest) {
+        return productSearchRepository.getProductsMatchingCriteria(criteria, pageRequest);
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductDocument> getProductsMatchingCriteria(ProductCriteria criteria,
-                                                             PageRequest pageRequest) {
-        return productRepository.getProductsMatchingCriteria(criteria, pageRequest);
+    public Window<ProductDocument> getProductsMatchingCriteria(ProductCriteria criteria,
+                                                               KeysetScrollPosition position,
+                                                               int limit) {
+        return productSearchRepository.getProductsMatchingCriteria(criteria, position, limit);
     }
 
     public boolean isProductLikedByUser(ProductDocument product, User user) {
@@ -177,45 +191,36 @@ public class ProductService {
 
     @Transactional
     public void likeProduct(long productId, User user) throws ProductNotFoundException {
-        ProductDocument product = getProductById(productId);
-
-        Set<Long> likedBy = product.getLikedBy();
-        if (likedBy == null) {
-            likedBy = new HashSet<>();
-            product.setLikedBy(likedBy);
+        if (productRepository.addLikedBy(productId, user.getId()) == 0) {
+            assertProductExists(productId);
         }
 
-        likedBy.add(user.getId());
-        productRepository.save(product);
-
-        user.getLikedProducts().add(productId);
-        userService.saveUser(user);
+        userService.addLikedProduct(user, productId);
     }
 
     @Transactional
-    public void unlikeProduct(long productId, User user) {
-        ProductDocument product = getProductById(productId);
-
-        Set<Long> likedBy = product.getLikedBy();
-        if (likedBy == null) {
-            return;
+    public void unlikeProduct(long productId, User user) throws ProductNotFoundException {
+        if (productRepository.removeLikedBy(productId, user.getId()) == 0) {
+            assertProductExists(productId);
         }
 
-        likedBy.remove(user.getId());
-        productRepository.save(product);
+        userService.removeLikedProduct(user, productId);
+    }
 
-        user.getLikedProducts().remove(productId);
-        userService.saveUser(user);
+    private void assertProductExists(long productId) throws ProductNotFoundException {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException(productId);
+        }
     }
 
     // TODO: refactor reviews
     @Transactional
     public Optional<ReviewDto> addReview(Review review) throws ProductNotFoundException {
-        User userOptional = userService.getUserByUsername(authService.getCurrentUsername());
+        User user = userService.getUserByUsername(authService.getCurrentUsername());
 
-        ProductDocument product = getProductById(review.getProductId());
+        long productId = review.getProductId();
+        assertProductExists(productId);
 
-        User user = userOptional;
         review.setUser(user);
 
         Optional<ReviewDto> reviewOptional = reviewService.addReview(user, review);
@@ -223,94 +228,67 @@ public class ProductService {
             return Optional.empty();
         }
 
-        Map<Long, Integer> ratings = product.getRatings();
-        Integer ratingSum = product.getRatingSum();
-
-        if (ratings == null) {
-            ratings = new TreeMap<>();
-            ratingSum = 0;
-        }
-
-        long userId = user.getId();
-        if (ratings.containsKey(userId)) {
-            return Optional.empty();
-        }
-
-        ratings.put(userId, review.getRating());
-        ratingSum = ratingSum + review.getRating();
-        product.setRatings(ratings);
-        product.setRatingSum(ratingSum);
-
-        Integer rating = ratingSum / ratings.size();
-        product.setRating(rating);
-
-        productRepository.save(product);
+        updateRatings(productId, review.getRating(), 1, isOpinion(review.getContent()) ? 1 : 0);
 
         return reviewOptional;
     }
 
     @Transactional
     public Optional<ReviewDto> editReview(Review review) throws ProductNotFoundException {
-        User userOptional = userService.getUserByUsername(authService.getCurrentUsername());
+        User user = userService.getUserByUsername(authService.getCurrentUsername());
 
-        ProductDocument product = getProductById(review.getProductId());
+        long productId = review.getProductId();
+        assertProductExists(productId);
 
-        User user = userOptional;
-        long userId = user.getId();
-
-        Optional<ReviewDto> reviewOptional = reviewService.editReview(user, review);
-        if (reviewOptional.isEmpty()) {
+        Optional<ReviewDto> oldReviewOptional = reviewService
+            .getProductUserReview(user, productId);
+        if (oldReviewOptional.isEmpty()) {
             return Optional.empty();
         }
+        ReviewDto oldReview = oldReviewOptional.get();
 
-        Map<Long, Integer> ratings = product.getRatings();
-        if (ratings == null) {
+        Optional<ReviewDto> reviewOptional = reviewService.editReview(user, review);
+        if (reviewOptional.isEmpty()) {
             return Optional.empty();
         }
-        Integer ratingSum = product.getRatingSum();
-        ratingSum = ratingSum - ratings.get(userId) + review.getRating();
-        ratings.put(userId, review.getRating());
 
-        product.setRatings(ratings);
-        product.setRatingSum(ratingSum);
-
-        Integer rating = ratings.isEmpty() ? 0 : (ratingSum / ratings.size());
-        product.setRating(rating);
-
-        productRepository.save(product);
+        int opinionsCountDelta = (isOpinion(review.getContent()) ? 1 : 0)
+            - (isOpinion(oldReview.content()) ? 1 : 0);
+        updateRatings(productId, review.getRating() - oldReview.rating(), 0, opinionsCountDelta);
 
         return reviewOptional;
     }
 
     @Transactional
     public boolean deleteReview(long productId) throws ProductNotFoundException {
-        User userOptional = userService
-            .getUserByUsername(authService.getCurrentUsername());
-        ProductDocument product = getProductById(productId);
+        User user = userService.getUserByUsername(authService.getCurrentUsername());
 
-        User user = userOptional;
-        long userId = user.getId();
+        assertProductExists(productId);
 
-        Map<Long, Integer> ratings = product.getRatings();
-        if (ratings == null || !ratings.containsKey(userId)) {
+        Optional<ReviewDto> reviewOptional = reviewService.getProductUserReview(user, productId);
+        if (reviewOptional.isEmpty()) {
             return false;
         }
+        ReviewDto review = reviewOptional.get();
 
         reviewService.deleteReview(user, productId);
 
-        Integer ratingSum = product.getRatingSum();
-        ratingSum = ratingSum - ratings.get(userId);
+        updateRatings(productId, -review.rating(), -1, isOpinion(review.content()) ? -1 : 0);
 
-        ratings.remove(userId);
-        product.setRatings(ratings);
-        product.setRatingSum(ratingSum);
-
-        Integer rating = ratings.isEmpty() ? 0 : (ratingSum / ratings.size());
-        product.setRating(rating);
+        return true;
+    }
 
-        productRepository.save(product);
+    // Applies the deltas atomically, so that concurrent reviews do not overwrite each other,
+    // and publishes the updated product returned by the same update
+    private void updateRatings(long productId, int ratingSumDelta, int rateCountDelta,
+                               int opinionsCountDelta) {
+        productRepository.updateRatings(productId, ratingSumDelta, rateCountDelta,
+                opinionsCountDelta)
+            .ifPresent(product -> eventPublisher.publishEvent(new ProductChangedEvent(product)));
+    }
 
-        return true;
+    private boolean isOpinion(String content) {
+        return content != null && !content.isBlank();
     }
 
     @Transactional(readOnly = true)
@@ -327,6 +305,20 @@ public class ProductService {
         return Optional.of(reviewService.getProductReviews(productId, user));
     }
 
+    @Transactional(readOnly = true)
+    public Page<ReviewDto> getProductReviews(long productId, PageRequest pageRequest)
+        throws ProductNotFoundException {
+        assertProductExists(productId);
+        return reviewService.getProductReviews(productId, pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ReviewDto> getProductReviews(long productId, User user, PageRequest pageRequest)
+        throws ProductNotFoundException {
+        assertProductExists(productId);
+        return reviewService.getProductReviews(productId, user, pageRequest);
+    }
+
     public Optional<ReviewDto> getProductUserReview(long id) {
         User userOptional = userService
             .getUserByUsername(authService.getCurrentUsername());
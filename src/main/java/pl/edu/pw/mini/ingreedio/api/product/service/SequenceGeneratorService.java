@@ -3,8 +3,14 @@ package pl.edu.pw.mini.ingreedio.api.product.service;
 
 import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -12,19 +18,71 @@ import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import pl.edu.pw.mini.ingreedio.api.product.model.DatabaseSequenceDocument;
 
+/**
+ * Generates the ids from the sequences stored in MongoDB.
+ *
+ * <p>The ids are reserved in blocks with a single increment of the sequence and handed out from
+ * memory. The blocks reserved by different instances of the application never overlap, as
+ * every instance reserves its own block, but the ids are not assigned in the order of
+ * generation across the instances and the ids left in a block are skipped after a restart.
+ */
 @Service
 @RequiredArgsConstructor
 public class SequenceGeneratorService {
     private final MongoOperations mongoOperations;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, SequenceBlock> blocks = new ConcurrentHashMap<>();
+
+    @Value("${mongodb.sequence.block-size}")
+    private int blockSize;
 
     public Long generateSequence(String seqName) {
+        SequenceBlock block = blocks.computeIfAbsent(seqName, this::reserveBlock);
+        long id;
+        while ((id = block.nextId()) == SequenceBlock.EXHAUSTED) {
+            // Only one of the threads which found the block exhausted reserves a new one, the
+            // others wait for it and take their ids from the new block
+            SequenceBlock exhaustedBlock = block;
+            block = blocks.compute(seqName, (name, currentBlock) ->
+                currentBlock == exhaustedBlock ? reserveBlock(name) : currentBlock);
+        }
+
+        return id;
+    }
+
+    private SequenceBlock reserveBlock(String seqName) {
         Query query = new Query(Criteria.where("id").is(seqName));
-        Update update = new Update().inc("seq", 1);
+        Update update = new Update().inc("seq", blockSize);
         DatabaseSequenceDocument counter = mongoOperations
             .findAndModify(query,
                 update, options().returnNew(true).upsert(true),
                 DatabaseSequenceDocument.class);
 
-        return !Objects.isNull(counter) ? counter.getSeq() : 1;
+        Counter.builder("sequence.blocks.reserved")
+            .description("Blocks of ids reserved in the database sequences")
+            .tag("sequence", seqName)
+            .register(meterRegistry)
+            .increment();
+
+        long lastId = !Objects.isNull(counter) ? counter.getSeq() : blockSize;
+        return new SequenceBlock(lastId - blockSize + 1, lastId);
+    }
+
+    private static final class SequenceBlock {
+        private static final long EXHAUSTED = -1;
+
+        private final AtomicLong nextId;
+        private final long lastId;
+
+        private SequenceBlock(long firstId, long lastId) {
+            this.nextId = new AtomicLong(firstId);
+            this.lastId = lastId;
+        }
+
+        private long nextId() {
+            long id = nextId.getAndIncrement();
+            return id <= lastId ? id : EXHAUSTED;
+        }
     }
-}
\ No newline at end of file
+}
@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import pl.edu.pw.mini.ingreedio.api.provider.dto.ProviderDto;
+import pl.edu.pw.mini.ingreedio.api.provider.mapper.ProviderDtoMapper;
 import pl.edu.pw.mini.ingreedio.api.provider.model.Provider;
 import pl.edu.pw.mini.ingreedio.api.provider.service.ProviderService;
 
@@ -23,13 +23,13 @@ import pl.edu.pw.mini.ingreedio.api.provider.service.ProviderService;
 @Tag(name = "Providers")
 public class ProviderController {
     private final ProviderService providerService;
-    private final ModelMapper modelMapper;
+    private final ProviderDtoMapper providerDtoMapper;
 
     @Operation(summary = "Get provider by ID", description = "Get provider by ID")
     @GetMapping("/{id}")
     public ResponseEntity<ProviderDto> getProviderById(@PathVariable long id) {
         return ResponseEntity.ok(
-            modelMapper.map(providerService.getProviderById(id), ProviderDto.class));
+            providerDtoMapper.apply(providerService.getProviderById(id)));
     }
 
     @Operation(summary = "Get providers by IDs", description = "Get providers by IDs")
@@ -38,7 +38,7 @@ public class ProviderController {
                                                                   Set<Long> providerIds) {
         Set<Provider> providers = providerService.getProvidersByIds(providerIds);
         Set<ProviderDto> providerDtos = providers.stream()
-                .map(provider -> modelMapper.map(provider, ProviderDto.class))
+                .map(providerDtoMapper)
                 .collect(Collectors.toSet());
         return ResponseEntity.ok(providerDtos);
     }
@@ -48,7 +48,7 @@ public class ProviderController {
     public ResponseEntity<List<ProviderDto>> getAllProviders() {
         List<Provider> providers = providerService.getAllProviders();
         List<ProviderDto> providerDtos = providers.stream()
-                .map(provider -> modelMapper.map(provider, ProviderDto.class))
+                .map(providerDtoMapper)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(providerDtos);
     }
@@ -0,0 +1,17 @@
+package pl.edu.pw.mini.ingreedio.api.provider.mapper;
+
+import java.util.function.Function;
+import org.springframework.stereotype.Service;
+import pl.edu.pw.mini.ingreedio.api.provider.dto.ProviderDto;
+import pl.edu.pw.mini.ingreedio.api.provider.model.Provider;
+
+@Service
+public class ProviderDtoMapper implements Function<Provider, ProviderDto> {
+    @Override
+    public ProviderDto apply(Provider provider) {
+        return ProviderDto.builder()
+            .id(provider.getId())
+            .name(provider.getName())
+            .build();
+    }
+}
@@ -1,11 +1,13 @@
 package pl.edu.pw.mini.ingreedio.api.provider.service;
 
-import java.util.HashSet;
+import jakarta.annotation.PostConstruct;
 import java.util.List;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.edu.pw.mini.ingreedio.api.common.cache.ReferenceDataCache;
+import pl.edu.pw.mini.ingreedio.api.common.cache.ReferenceDataCacheFactory;
 import pl.edu.pw.mini.ingreedio.api.provider.exception.ProviderNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.provider.model.Provider;
 import pl.edu.pw.mini.ingreedio.api.provider.repository.ProviderRepository;
@@ -15,13 +17,22 @@ import pl.edu.pw.mini.ingreedio.api.provider.repository.ProviderRepository;
 @Transactional(readOnly = true)
 public class ProviderService {
     private final ProviderRepository providerRepository;
+    private final ReferenceDataCacheFactory cacheFactory;
+
+    private ReferenceDataCache<Provider> cache;
+
+    @PostConstruct
+    protected void initCache() {
+        cache = cacheFactory.create("providers", providerRepository::findAllByIdIn,
+            Provider::getId);
+    }
 
     public Provider getProviderById(long id) {
-        return providerRepository.findById(id).orElseThrow(() -> new ProviderNotFoundException(id));
+        return cache.get(id).orElseThrow(() -> new ProviderNotFoundException(id));
     }
 
     public Set<Provider> getProvidersByIds(Set<Long> ids) {
-        return new HashSet<>(providerRepository.findAllByIdIn(ids));
+        return cache.getAll(ids);
     }
 
     public List<Provider> getAllProviders() {
@@ -0,0 +1,9 @@
+package pl.edu.pw.mini.ingreedio.api.review.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+public record ReviewPageDto(List<ReviewDto> reviews,
+                            Integer totalPages,
+                            Long totalReviews) { }
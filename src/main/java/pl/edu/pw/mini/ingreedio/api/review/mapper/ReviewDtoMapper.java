@@ -4,6 +4,7 @@ import java.util.function.Function;
 import org.springframework.stereotype.Service;
 import pl.edu.pw.mini.ingreedio.api.review.dto.ReviewDto;
 import pl.edu.pw.mini.ingreedio.api.review.model.Review;
+import pl.edu.pw.mini.ingreedio.api.review.repository.ProductReviewView;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
 
 @Service
@@ -18,8 +19,8 @@ public class ReviewDtoMapper implements Function<Review, ReviewDto> {
             .content(review.getContent())
             .createdAt(review.getCreatedAt())
             .userId(review.getUser().getId())
-            .likesCount(review.getLikingUsers().size())
-            .dislikesCount(review.getDislikingUsers().size())
+            .likesCount(review.getLikesCount())
+            .dislikesCount(review.getDislikesCount())
             .build();
     }
 
@@ -32,11 +33,43 @@ public class ReviewDtoMapper implements Function<Review, ReviewDto> {
             .content(review.getContent())
             .createdAt(review.getCreatedAt())
             .userId(review.getUser().getId())
-            .likesCount(review.getLikingUsers().size())
-            .dislikesCount(review.getDislikingUsers().size())
+            .likesCount(review.getLikesCount())
+            .dislikesCount(review.getDislikesCount())
             .isCurrentUser(review.getUser().getId() == (user.getId()))
             .isLiked(review.getLikingUsers().contains(user))
             .isDisliked(review.getDislikingUsers().contains(user))
             .build();
     }
+
+    public ReviewDto apply(ProductReviewView review) {
+        return ReviewDto.builder()
+            .reviewId(review.getReviewId())
+            .displayName(review.getDisplayName())
+            .productId(review.getProductId())
+            .rating(review.getRating())
+            .content(review.getContent())
+            .createdAt(review.getCreatedAt())
+            .userId(review.getUserId())
+            .likesCount(review.getLikesCount())
+            .dislikesCount(review.getDislikesCount())
+            .build();
+    }
+
+    // The review has to be selected with the votes of the user
+    public ReviewDto apply(ProductReviewView review, User user) {
+        return ReviewDto.builder()
+            .reviewId(review.getReviewId())
+            .displayName(review.getDisplayName())
+            .productId(review.getProductId())
+            .rating(review.getRating())
+            .content(review.getContent())
+            .createdAt(review.getCreatedAt())
+            .userId(review.getUserId())
+            .likesCount(review.getLikesCount())
+            .dislikesCount(review.getDislikesCount())
+            .isCurrentUser(review.getUserId() == user.getId())
+            .isLiked(review.getIsLiked())
+            .isDisliked(review.getIsDisliked())
+            .build();
+    }
 }
@@ -46,7 +46,15 @@ public class Review {
     @Column
     private Timestamp createdAt;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // The counters are updated only by ReviewRepository::updateVotesCounts
+    @Column(insertable = false, updatable = false)
+    @Builder.Default
+    private Integer likesCount = 0;
+    @Column(insertable = false, updatable = false)
+    @Builder.Default
+    private Integer dislikesCount = 0;
+
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "users_liked_reviews",
         joinColumns = @JoinColumn(name = "review_id"),
@@ -56,7 +64,7 @@ public class Review {
     @EqualsAndHashCode.Exclude
     private Set<User> likingUsers = new HashSet<>();
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "users_disliked_reviews",
         joinColumns = @JoinColumn(name = "review_id"),
@@ -0,0 +1,28 @@
+package pl.edu.pw.mini.ingreedio.api.review.repository;
+
+import java.sql.Timestamp;
+
+public interface ProductReviewView {
+    Long getReviewId();
+
+    Long getUserId();
+
+    String getDisplayName();
+
+    Long getProductId();
+
+    Integer getRating();
+
+    String getContent();
+
+    Timestamp getCreatedAt();
+
+    Integer getLikesCount();
+
+    Integer getDislikesCount();
+
+    // Selected only by the queries for a given user
+    Boolean getIsLiked();
+
+    Boolean getIsDisliked();
+}
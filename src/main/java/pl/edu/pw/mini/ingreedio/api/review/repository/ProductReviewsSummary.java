@@ -0,0 +1,11 @@
+package pl.edu.pw.mini.ingreedio.api.review.repository;
+
+public interface ProductReviewsSummary {
+    Long getProductId();
+
+    Long getRatingSum();
+
+    Long getRateCount();
+
+    Long getOpinionsCount();
+}
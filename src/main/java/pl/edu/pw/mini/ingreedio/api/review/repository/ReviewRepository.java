@@ -2,7 +2,10 @@ package pl.edu.pw.mini.ingreedio.api.review.repository;
 
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,13 +13,75 @@ import pl.edu.pw.mini.ingreedio.api.review.model.Review;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+    // The votes are counted in the reviews table, so the liking and disliking users are not
+    // loaded, apart from the votes of the current user
+    String PRODUCT_REVIEWS_COLUMNS = "SELECT r.id AS \"reviewId\", r.user_id AS \"userId\", "
+        + "u.display_name AS \"displayName\", r.product_id AS \"productId\", "
+        + "r.rating AS \"rating\", r.content AS \"content\", r.created_at AS \"createdAt\", "
+        + "r.likes_count AS \"likesCount\", r.dislikes_count AS \"dislikesCount\"";
+    String PRODUCT_REVIEWS_SOURCE = " FROM reviews r JOIN users u ON u.id = r.user_id "
+        + "WHERE r.product_id = :productId";
+    String PRODUCT_REVIEWS_COUNT = "SELECT COUNT(*) FROM reviews WHERE product_id = :productId";
+    String USER_VOTES_COLUMNS = ", EXISTS (SELECT 1 FROM users_liked_reviews l "
+        + "WHERE l.review_id = r.id AND l.user_id = :userId) AS \"isLiked\", "
+        + "EXISTS (SELECT 1 FROM users_disliked_reviews d "
+        + "WHERE d.review_id = r.id AND d.user_id = :userId) AS \"isDisliked\"";
+
     Optional<Review> findById(int id);
 
     @Query("SELECT r FROM Review r WHERE r.user.id = :userId AND r.productId = :productId")
     Optional<Review> findByUserIdAndProductId(@Param("userId") long userId,
                                               @Param("productId") long productId);
 
-    @Query("SELECT r FROM Review r WHERE r.productId = :productId")
-    List<Review> getProductReviews(@Param("productId") long productId);
+    @Query(value = PRODUCT_REVIEWS_COLUMNS + PRODUCT_REVIEWS_SOURCE + " ORDER BY r.id",
+        countQuery = PRODUCT_REVIEWS_COUNT, nativeQuery = true)
+    Page<ProductReviewView> getProductReviews(@Param("productId") long productId,
+                                              Pageable pageable);
+
+    // The review of the user comes first
+    @Query(value = PRODUCT_REVIEWS_COLUMNS + USER_VOTES_COLUMNS + PRODUCT_REVIEWS_SOURCE
+        + " ORDER BY r.user_id = :userId DESC, r.id",
+        countQuery = PRODUCT_REVIEWS_COUNT, nativeQuery = true)
+    Page<ProductReviewView> getProductReviews(@Param("productId") long productId,
+                                              @Param("userId") long userId,
+                                              Pageable pageable);
+
+    @Query(value = PRODUCT_REVIEWS_COLUMNS + USER_VOTES_COLUMNS
+        + " FROM reviews r JOIN users u ON u.id = r.user_id WHERE r.user_id = :userId"
+        + " ORDER BY r.id", nativeQuery = true)
+    List<ProductReviewView> getUserReviews(@Param("userId") long userId);
+
+    // The votes are idempotent, the returned number of rows is 0 if the vote has not changed
+    @Modifying
+    @Query(value = "INSERT INTO users_liked_reviews (user_id, review_id) "
+        + "VALUES (:userId, :reviewId) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addLike(long reviewId, long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM users_liked_reviews WHERE review_id = :reviewId "
+        + "AND user_id = :userId", nativeQuery = true)
+    int removeLike(long reviewId, long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO users_disliked_reviews (user_id, review_id) "
+        + "VALUES (:userId, :reviewId) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addDislike(long reviewId, long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM users_disliked_reviews WHERE review_id = :reviewId "
+        + "AND user_id = :userId", nativeQuery = true)
+    int removeDislike(long reviewId, long userId);
+
+    // Applies the deltas atomically, so that concurrent votes do not overwrite each other. The
+    // persistence context is cleared, as the loaded reviews and their voters are outdated then
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE reviews SET likes_count = likes_count + :likesDelta, "
+        + "dislikes_count = dislikes_count + :dislikesDelta WHERE id = :reviewId",
+        nativeQuery = true)
+    void updateVotesCounts(long reviewId, int likesDelta, int dislikesDelta);
 
+    @Query("SELECT r.productId AS productId, SUM(r.rating) AS ratingSum, COUNT(r) AS rateCount, "
+        + "SUM(CASE WHEN TRIM(r.content) <> '' THEN 1 ELSE 0 END) AS opinionsCount "
+        + "FROM Review r GROUP BY r.productId")
+    List<ProductReviewsSummary> getProductReviewsSummaries();
 }
@@ -2,9 +2,9 @@ package pl.edu.pw.mini.ingreedio.api.review.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.auth.exception.NotLoggedInException;
@@ -117,21 +117,33 @@ public class ReviewService {
 
     @Transactional(readOnly = true)
     public List<ReviewDto> getProductReviews(Long productId) {
-        return reviewRepository.getProductReviews(productId)
-            .stream()
-            .map(reviewDtoMapper)
-            .collect(Collectors.toList());
+        return getProductReviews(productId, Pageable.unpaged()).getContent();
     }
 
     @Transactional(readOnly = true)
     public List<ReviewDto> getProductReviews(Long productId, User user) {
-        return reviewRepository.getProductReviews(productId)
-            .stream()
-            .sorted((first, second) -> -Boolean.compare(
-                first.getUser().getId() == (user.getId()),
-                second.getUser().getId() == (user.getId())))
+        return getProductReviews(productId, user, Pageable.unpaged()).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ReviewDto> getProductReviews(Long productId, Pageable pageable) {
+        return reviewRepository.getProductReviews(productId, pageable)
+            .map(review -> reviewDtoMapper.apply(review));
+    }
+
+    // The review of the user comes first
+    @Transactional(readOnly = true)
+    public Page<ReviewDto> getProductReviews(Long productId, User user, Pageable pageable) {
+        return reviewRepository.getProductReviews(productId, user.getId(), pageable)
+            .map(review -> reviewDtoMapper.apply(review, user));
+    }
+
+    // The votes of the user are selected along with the reviews, instead of loading the voters
+    @Transactional(readOnly = true)
+    public List<ReviewDto> getUserReviews(User user) {
+        return reviewRepository.getUserReviews(user.getId()).stream()
             .map(review -> reviewDtoMapper.apply(review, user))
-            .collect(Collectors.toList());
+            .toList();
     }
 
     @Transactional(readOnly = true)
@@ -141,89 +153,60 @@ public class ReviewService {
         return reviewOptional.map(reviewDtoMapper);
     }
 
+    // The liked votes are changed before the disliked ones by every operation, so that the
+    // concurrent votes of a user lock the rows in the same order
     @Transactional
     public void likeReview(Long reviewId)
         throws NotLoggedInException, ReviewNotFoundException {
-        User userOptional = userService
-            .getUserByUsername(authService.getCurrentUsername());
-
-        Optional<Review> reviewOptional = reviewRepository.findById(reviewId);
+        long userId = getVotingUserId(reviewId);
 
-        if (reviewOptional.isEmpty()) {
-            throw new ReviewNotFoundException(reviewId);
-        }
-
-        Set<User> likingUsers = reviewOptional.get().getLikingUsers();
-        Set<User> dislikingUsers = reviewOptional.get().getDislikingUsers();
-        likingUsers.add(userOptional);
-        dislikingUsers.remove(userOptional);
-        reviewOptional.get().setLikingUsers(likingUsers);
-        reviewOptional.get().setDislikingUsers(dislikingUsers);
-
-        reviewRepository.save(reviewOptional.get());
-        userService.likeReview(userOptional, reviewOptional.get());
+        int likesDelta = reviewRepository.addLike(reviewId, userId);
+        int dislikesDelta = -reviewRepository.removeDislike(reviewId, userId);
+        updateVotesCounts(reviewId, likesDelta, dislikesDelta);
     }
 
     @Transactional
     public void unlikeReview(Long reviewId)
         throws NotLoggedInException, ReviewNotFoundException {
-        User userOptional = userService
-            .getUserByUsername(authService.getCurrentUsername());
-
-        Optional<Review> reviewOptional = reviewRepository.findById(reviewId);
+        long userId = getVotingUserId(reviewId);
 
-        if (reviewOptional.isEmpty()) {
-            throw new ReviewNotFoundException(reviewId);
-        }
-
-        Set<User> likingUsers = reviewOptional.get().getLikingUsers();
-        likingUsers.remove(userOptional);
-        reviewOptional.get().setLikingUsers(likingUsers);
-
-        reviewRepository.save(reviewOptional.get());
-        userService.unlikeReview(userOptional, reviewOptional.get());
+        int likesDelta = -reviewRepository.removeLike(reviewId, userId);
+        updateVotesCounts(reviewId, likesDelta, 0);
     }
 
     @Transactional
     public void dislikeReview(Long reviewId)
         throws NotLoggedInException, ReviewNotFoundException {
-        User userOptional = userService
-            .getUserByUsername(authService.getCurrentUsername());
-
-        Optional<Review> reviewOptional = reviewRepository.findById(reviewId);
-
-        if (reviewOptional.isEmpty()) {
-            throw new ReviewNotFoundException(reviewId);
-        }
-
-        Set<User> likingUsers = reviewOptional.get().getLikingUsers();
-        Set<User> dislikingUsers = reviewOptional.get().getDislikingUsers();
-        likingUsers.remove(userOptional);
-        dislikingUsers.add(userOptional);
-        reviewOptional.get().setLikingUsers(likingUsers);
-        reviewOptional.get().setDislikingUsers(dislikingUsers);
+        long userId = getVotingUserId(reviewId);
 
-        reviewRepository.save(reviewOptional.get());
-        userService.dislikeReview(userOptional, reviewOptional.get());
+        int likesDelta = -reviewRepository.removeLike(reviewId, userId);
+        int dislikesDelta = reviewRepository.addDislike(reviewId, userId);
+        updateVotesCounts(reviewId, likesDelta, dislikesDelta);
     }
 
     @Transactional
     public void undislikeReview(Long reviewId)
         throws NotLoggedInException, ReviewNotFoundException {
-        User userOptional = userService
-            .getUserByUsername(authService.getCurrentUsername());
+        long userId = getVotingUserId(reviewId);
 
-        Optional<Review> reviewOptional = reviewRepository.findById(reviewId);
+        int dislikesDelta = -reviewRepository.removeDislike(reviewId, userId);
+        updateVotesCounts(reviewId, 0, dislikesDelta);
+    }
 
-        if (reviewOptional.isEmpty()) {
+    private long getVotingUserId(Long reviewId)
+        throws NotLoggedInException, ReviewNotFoundException {
+        User user = userService.getUserByUsername(authService.getCurrentUsername());
+
+        if (!reviewRepository.existsById(reviewId)) {
             throw new ReviewNotFoundException(reviewId);
         }
 
-        Set<User> dislikingUsers = reviewOptional.get().getDislikingUsers();
-        dislikingUsers.remove(userOptional);
-        reviewOptional.get().setDislikingUsers(dislikingUsers);
+        return user.getId();
+    }
 
-        reviewRepository.save(reviewOptional.get());
-        userService.undislikeReview(userOptional, reviewOptional.get());
+    private void updateVotesCounts(long reviewId, int likesDelta, int dislikesDelta) {
+        if (likesDelta != 0 || dislikesDelta != 0) {
+            reviewRepository.updateVotesCounts(reviewId, likesDelta, dislikesDelta);
+        }
     }
 }
@@ -25,8 +25,9 @@ import org.springframework.web.bind.annotation.RestController;
 import pl.edu.pw.mini.ingreedio.api.auth.dto.RegisterRequestDto;
 import pl.edu.pw.mini.ingreedio.api.auth.service.AuthService;
 import pl.edu.pw.mini.ingreedio.api.ingredient.dto.IngredientDto;
+import pl.edu.pw.mini.ingreedio.api.ingredient.mapper.IngredientDtoMapper;
 import pl.edu.pw.mini.ingreedio.api.review.dto.ReviewDto;
-import pl.edu.pw.mini.ingreedio.api.review.mapper.ReviewDtoMapper;
+import pl.edu.pw.mini.ingreedio.api.review.service.ReviewService;
 import pl.edu.pw.mini.ingreedio.api.user.dto.UserDto;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
 import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
@@ -40,6 +41,8 @@ public class UserController {
     private final UserService userService;
     private final AuthService authService;
     private final ModelMapper modelMapper;
+    private final IngredientDtoMapper ingredientDtoMapper;
+    private final ReviewService reviewService;
 
     @Operation(summary = "Get user data",
         description = "Fetches user information based on authentication.",
@@ -104,9 +107,6 @@ public class UserController {
         return ResponseEntity.ok(modelMapper.map(userService.getUserById(id), UserDto.class));
     }
 
-
-    private final ReviewDtoMapper reviewDtoMapper; //TODO: temp
-
     @Operation(summary = "Get user ratings",
         description = "Fetches the ratings/reviews associated with logged in user.",
         security = @SecurityRequirement(name = "Bearer Authentication")
@@ -121,9 +121,7 @@ public class UserController {
     @GetMapping("/reviews")
     public ResponseEntity<List<ReviewDto>> getUserReviews(Authentication authentication) {
         User user = userService.getUser(authentication);
-        return ResponseEntity.ok(userService.getUserReviews(user).stream()
-            .map(review -> reviewDtoMapper.apply(review, user))
-            .toList()); // TODO: mapper
+        return ResponseEntity.ok(reviewService.getUserReviews(user));
     }
 
     @Operation(summary = "Get liked ingredients",
@@ -141,7 +139,7 @@ public class UserController {
         List<IngredientDto> ingredientDtos = userService.getUser(authentication)
             .getLikedIngredients()
             .stream()
-            .map((ingredient) -> modelMapper.map(ingredient, IngredientDto.class))
+            .map(ingredientDtoMapper)
             .toList();
         return ResponseEntity.ok(ingredientDtos);
     }
@@ -160,7 +158,7 @@ public class UserController {
         List<IngredientDto> ingredientDtos = userService.getUser(authentication)
             .getAllergens()
             .stream()
-            .map((ingredient) -> modelMapper.map(ingredient, IngredientDto.class))
+            .map(ingredientDtoMapper)
             .toList();
         return ResponseEntity.ok(ingredientDtos);
     }
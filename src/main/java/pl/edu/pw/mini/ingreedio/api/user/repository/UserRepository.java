@@ -3,6 +3,7 @@ package pl.edu.pw.mini.ingreedio.api.user.repository;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.query.Procedure;
 import org.springframework.stereotype.Repository;
@@ -15,6 +16,17 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("SELECT u FROM User u WHERE :productId MEMBER OF u.likedProducts")
     List<User> findUsersByLikedProduct(Long productId);
 
+    @Modifying
+    @Query(value = "INSERT INTO users_products (user_id, product_id) "
+        + "VALUES (:userId, :productId) ON CONFLICT DO NOTHING",
+        nativeQuery = true)
+    void addLikedProduct(long userId, long productId);
+
+    @Modifying
+    @Query(value = "DELETE FROM users_products WHERE user_id = :userId AND product_id = :productId",
+        nativeQuery = true)
+    void removeLikedProduct(long userId, long productId);
+
     @Procedure("delete_product_user")
     void productDeleted(long id);
 }
@@ -1,7 +1,6 @@
 package pl.edu.pw.mini.ingreedio.api.user.service;
 
 import java.util.List;
-import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
@@ -10,8 +9,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.auth.exception.UserAlreadyExistsException;
 import pl.edu.pw.mini.ingreedio.api.auth.model.AuthInfo;
+import pl.edu.pw.mini.ingreedio.api.auth.security.JwtUserClaims;
 import pl.edu.pw.mini.ingreedio.api.auth.service.AuthInfoMangerService;
-import pl.edu.pw.mini.ingreedio.api.review.model.Review;
 import pl.edu.pw.mini.ingreedio.api.user.exception.UserNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
 import pl.edu.pw.mini.ingreedio.api.user.repository.UserRepository;
@@ -24,6 +23,11 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public User getUser(Authentication authentication) {
+        // The stateless authentication provides the token claims instead of the AuthInfo
+        if (authentication.getPrincipal() instanceof JwtUserClaims claims) {
+            return getUserById(claims.userId());
+        }
+
         AuthInfo info = (AuthInfo) authentication.getPrincipal();
         return getUserById(info.getUser().getId());
     }
@@ -59,50 +63,17 @@ public class UserService {
     }
 
     @Transactional
-    public void handleProductDeletion(long productId) {
-        userRepository.productDeleted(productId);
-    }
-
-    @Transactional
-    public void likeReview(User user, Review review) {
-        Set<Review> likedReviews = user.getLikedReviews();
-        Set<Review> dislikedReviews = user.getDislikedReviews();
-        likedReviews.add(review);
-        dislikedReviews.remove(review);
-        user.setLikedReviews(likedReviews);
-        user.setDislikedReviews(dislikedReviews);
-        userRepository.save(user);
+    public void addLikedProduct(User user, long productId) {
+        userRepository.addLikedProduct(user.getId(), productId);
     }
 
     @Transactional
-    public void unlikeReview(User user, Review review) {
-        Set<Review> likedReviews = user.getLikedReviews();
-        likedReviews.remove(review);
-        user.setLikedReviews(likedReviews);
-        userRepository.save(user);
+    public void removeLikedProduct(User user, long productId) {
+        userRepository.removeLikedProduct(user.getId(), productId);
     }
 
     @Transactional
-    public void dislikeReview(User user, Review review) {
-        Set<Review> dislikedReviews = user.getDislikedReviews();
-        Set<Review> likedReviews = user.getLikedReviews();
-        dislikedReviews.add(review);
-        likedReviews.remove(review);
-        user.setDislikedReviews(dislikedReviews);
-        user.setLikedReviews(likedReviews);
-        userRepository.save(user);
-    }
-
-    @Transactional
-    public void undislikeReview(User user, Review review) {
-        Set<Review> dislikedReviews = user.getDislikedReviews();
-        dislikedReviews.remove(review);
-        user.setDislikedReviews(dislikedReviews);
-        userRepository.save(user);
-    }
-
-    @Transactional
-    public List<Review> getUserReviews(User user) {
-        return user.getReviews();
+    public void handleProductDeletion(long productId) {
+        userRepository.productDeleted(productId);
     }
 }
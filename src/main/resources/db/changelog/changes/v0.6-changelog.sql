@@ -0,0 +1,44 @@
+--liquibase formatted sql
+
+--changeset kubazuch:refresh-token-expiration-index
+CREATE INDEX refresh_token_expiration_date_idx ON refresh_token (expiration_date);
+
+--changeset kubazuch:refresh-token-unique-token
+CREATE UNIQUE INDEX refresh_token_token_idx ON refresh_token (token);
+
+--changeset kubazuch:reviews-product-index
+CREATE INDEX reviews_product_id_idx ON reviews (product_id);
+
+--changeset kubazuch:backfill-reviews-votes-counts
+UPDATE reviews r
+SET likes_count    = (SELECT COUNT(DISTINCT l.user_id)
+                      FROM users_liked_reviews l
+                      WHERE l.review_id = r.id),
+    dislikes_count = (SELECT COUNT(DISTINCT d.user_id)
+                      FROM users_disliked_reviews d
+                      WHERE d.review_id = r.id);
+
+--changeset kubazuch:users-liked-reviews-unique-vote
+DELETE FROM users_liked_reviews a
+    USING users_liked_reviews b
+WHERE a.review_id = b.review_id AND a.user_id = b.user_id AND a.id > b.id;
+ALTER TABLE users_liked_reviews
+    ADD CONSTRAINT users_liked_reviews_review_user_key UNIQUE (review_id, user_id);
+
+--changeset kubazuch:users-disliked-reviews-unique-vote
+DELETE FROM users_disliked_reviews a
+    USING users_disliked_reviews b
+WHERE a.review_id = b.review_id AND a.user_id = b.user_id AND a.id > b.id;
+ALTER TABLE users_disliked_reviews
+    ADD CONSTRAINT users_disliked_reviews_review_user_key UNIQUE (review_id, user_id);
+
+--changeset kubazuch:ingredients-name-trigram-index
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX ingredients_name_trgm_idx ON ingredients USING gin (name gin_trgm_ops);
+
+--changeset kubazuch:users-products-unique-like
+DELETE FROM users_products a
+    USING users_products b
+WHERE a.user_id = b.user_id AND a.product_id = b.product_id AND a.id > b.id;
+ALTER TABLE users_products
+    ADD CONSTRAINT users_products_user_product_key UNIQUE (user_id, product_id);
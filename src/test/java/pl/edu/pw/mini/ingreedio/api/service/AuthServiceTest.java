@@ -3,26 +3,46 @@ package pl.edu.pw.mini.ingreedio.api.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchException;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.zalando.problem.Status;
 import org.zalando.problem.ThrowableProblem;
 import pl.edu.pw.mini.ingreedio.api.IntegrationTest;
 import pl.edu.pw.mini.ingreedio.api.auth.exception.UserAlreadyExistsException;
 import pl.edu.pw.mini.ingreedio.api.auth.model.AuthInfo;
+import pl.edu.pw.mini.ingreedio.api.auth.model.RefreshToken;
 import pl.edu.pw.mini.ingreedio.api.auth.model.Role;
+import pl.edu.pw.mini.ingreedio.api.auth.repository.RefreshTokenRepository;
 import pl.edu.pw.mini.ingreedio.api.auth.repository.RoleRepository;
 import pl.edu.pw.mini.ingreedio.api.auth.security.JwtAuthTokens;
 import pl.edu.pw.mini.ingreedio.api.auth.security.JwtUserClaims;
+import pl.edu.pw.mini.ingreedio.api.auth.security.TokenJanitor;
+import pl.edu.pw.mini.ingreedio.api.auth.security.VerifiedJwt;
+import pl.edu.pw.mini.ingreedio.api.auth.security.VerifiedTokenCache;
+import pl.edu.pw.mini.ingreedio.api.auth.security.VerifiedTokenCache.VerifiedToken;
 import pl.edu.pw.mini.ingreedio.api.auth.service.AuthService;
 import pl.edu.pw.mini.ingreedio.api.auth.service.JwtClaimsService;
 import pl.edu.pw.mini.ingreedio.api.auth.service.JwtService;
-import pl.edu.pw.mini.ingreedio.api.auth.service.RefreshTokenService;
+import pl.edu.pw.mini.ingreedio.api.auth.service.RoleAuthoritiesService;
 import pl.edu.pw.mini.ingreedio.api.auth.service.RoleService;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
 import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
@@ -33,8 +53,6 @@ public class AuthServiceTest extends IntegrationTest {
     @Autowired
     private RoleService roleService;
     @Autowired
-    private RefreshTokenService refreshTokenService;
-    @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
     private JwtService jwtService;
@@ -42,6 +60,16 @@ public class AuthServiceTest extends IntegrationTest {
     private JwtClaimsService jwtClaimsService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    @Autowired
+    private RoleAuthoritiesService roleAuthoritiesService;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private TokenJanitor tokenJanitor;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     private User user;
 
@@ -144,7 +172,7 @@ public class AuthServiceTest extends IntegrationTest {
         JwtAuthTokens loginResponse = authService.login("user", "user");
 
         // When
-        JwtAuthTokens response = authService.refresh(loginResponse.refreshToken());
+        JwtAuthTokens response = authService.refresh(loginResponse.refreshToken().getToken());
         AuthInfo info = response.refreshToken().getAuthInfo();
         JwtUserClaims claims = jwtClaimsService.getJwtUserClaimsByAuthInfo(info);
 
@@ -155,13 +183,59 @@ public class AuthServiceTest extends IntegrationTest {
         assertThat(response.refreshToken()).isNotNull();
     }
 
+    @Test
+    void givenSameRefreshToken_whenRefreshConcurrently_thenOnlyOneRefreshSucceeds()
+        throws InterruptedException {
+        // Given
+        // The token is committed, so that it is visible to the refreshing threads
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        String refreshToken = newTransaction.execute(status ->
+            authService.login("user", "user").refreshToken().getToken());
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<JwtAuthTokens>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return authService.refresh(refreshToken);
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        // Then
+        List<RefreshToken> rotatedTokens = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<JwtAuthTokens> result : results) {
+            try {
+                rotatedTokens.add(result.get().refreshToken());
+            } catch (ExecutionException ex) {
+                failures.add(ex.getCause());
+            }
+        }
+        newTransaction.executeWithoutResult(status ->
+            rotatedTokens.forEach(token -> refreshTokenRepository.deleteById(token.getId())));
+
+        assertThat(rotatedTokens).hasSize(1);
+        assertThat(rotatedTokens.get(0).getToken()).isNotEqualTo(refreshToken);
+        assertThat(failures).hasSize(threads - 1).allSatisfy(failure -> {
+            assertThat(failure).isInstanceOf(ThrowableProblem.class);
+            assertThat(((ThrowableProblem) failure).getStatus()).isEqualTo(Status.UNAUTHORIZED);
+        });
+    }
+
     @Test
     void givenInvalidRefreshToken_whenRefresh_thenExceptionThrown() {
         // Given
         String refreshToken = ":)";
 
         // When
-        Exception exception = catchException(() -> refreshTokenService.getToken(refreshToken));
+        Exception exception = catchException(() -> authService.refresh(refreshToken));
 
         // Then
         assertThat(exception).isInstanceOf(ThrowableProblem.class);
@@ -184,6 +258,62 @@ public class AuthServiceTest extends IntegrationTest {
             .anyMatch(role -> role.getName().equals("TEST"))).isTrue();
     }
 
+    @Test
+    public void givenCachedToken_whenGrantingRole_thenCachedTokenIsInvalidated() {
+        // Given
+        AuthInfo authInfo = authService.register("cached_user", "pass", user);
+        JwtAuthTokens tokens = authService.login("cached_user", "pass");
+        VerifiedJwt verifiedJwt = jwtService.verify(tokens.accessToken());
+        verifiedTokenCache.put(tokens.accessToken(), new VerifiedToken(verifiedJwt.claims(),
+            authInfo, authInfo.getAuthorities(), verifiedJwt.expiresAt()));
+        Role newUserRole = assertRoleExist("TEST");
+
+        // When
+        boolean cachedBefore = verifiedTokenCache.get(tokens.accessToken()).isPresent();
+        authService.grantRole(authInfo, newUserRole);
+
+        // Then
+        assertThat(cachedBefore).isTrue();
+        assertThat(verifiedTokenCache.get(tokens.accessToken())).isEmpty();
+    }
+
+    @Test
+    public void givenNewRole_whenGettingRoleAuthorities_thenSharedAuthoritiesAreReturned() {
+        // Given
+        assertRoleExist("SNAPSHOT_TEST");
+
+        // When
+        Set<GrantedAuthority> authorities =
+            roleAuthoritiesService.getAuthorities(Set.of("SNAPSHOT_TEST", "USER"));
+
+        // Then
+        assertThat(authorities).contains(new SimpleGrantedAuthority("ROLE_SNAPSHOT_TEST"),
+            new SimpleGrantedAuthority("ROLE_USER"));
+        assertThat(roleAuthoritiesService.getAuthorities(Set.of("USER", "SNAPSHOT_TEST")))
+            .isSameAs(authorities);
+    }
+
+    @Test
+    void givenExpiredRefreshTokens_whenClearingOldTokens_thenAllExpiredTokensAreDeleted() {
+        // Given
+        List<RefreshToken> expiredTokens = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RefreshToken token = authService.login("user", "user").refreshToken();
+            token.setExpirationDate(Instant.now().minusSeconds(60));
+            expiredTokens.add(refreshTokenRepository.save(token));
+        }
+        JwtAuthTokens validTokens = authService.login("user", "user");
+
+        // When
+        tokenJanitor.clearOldTokens();
+
+        // Then
+        assertThat(expiredTokens).allMatch(token ->
+            refreshTokenRepository.findByToken(token.getToken()).isEmpty());
+        assertThat(refreshTokenRepository.findByToken(validTokens.refreshToken().getToken()))
+            .isPresent();
+    }
+
     @Autowired
     RoleRepository roleRepository;
 
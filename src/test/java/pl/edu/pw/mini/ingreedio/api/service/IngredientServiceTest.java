@@ -2,17 +2,23 @@ package pl.edu.pw.mini.ingreedio.api.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.IntegrationTest;
 import pl.edu.pw.mini.ingreedio.api.ingredient.model.Ingredient;
+import pl.edu.pw.mini.ingreedio.api.ingredient.service.IngredientSearchEngine;
 import pl.edu.pw.mini.ingreedio.api.ingredient.service.IngredientService;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
 import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
@@ -26,6 +32,9 @@ public class IngredientServiceTest extends IntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private User user;
 
     @BeforeEach
@@ -160,87 +169,214 @@ public class IngredientServiceTest extends IntegrationTest {
     }
 
     @Test
-    public void givenQuery_whenSearch_thenCorrectResult() {
+    public void givenCachedIngredients_whenGetByIds_thenOnlyMissesAreLoaded() {
         // Given
         final Long ingredient1Id = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURKA DLA MAMY").build()).getId();
+            Ingredient.builder().name("CACHED AQUA").build()).getId();
         final Long ingredient2Id = ingredientService.addIngredient(
-            Ingredient.builder().name("SULFUR").build()).getId();
-        final Long ingredient3Id = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURYL SULFATE").build()).getId();
-        final Long ingredient4Id = ingredientService.addIngredient(
-            Ingredient.builder().name("KLAU FSUL").build()).getId();
-        final Long ingredient5Id = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURYL SULFIDE").build()).getId();
-
-        String query = "LAU SUL";
+            Ingredient.builder().name("CACHED GLYCERIN").build()).getId();
+        ingredientService.getIngredientById(ingredient1Id);
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
 
         // When
-        List<Ingredient> ingredients = ingredientService.getIngredients(10, query);
+        Set<Ingredient> ingredients = ingredientService
+            .getIngredientsByIds(Set.of(ingredient1Id, ingredient2Id));
 
         // Then
-        assertThat(ingredients.size()).isEqualTo(4);
-        assertThat(ingredients.getFirst().getId()).isEqualTo(ingredient3Id);
-        assertThat(ingredients).map(Ingredient::getId).containsAll(
-            List.of(ingredient1Id, ingredient2Id, ingredient3Id, ingredient5Id)
-        );
-        assertThat(ingredients).map(Ingredient::getId).doesNotContain(ingredient4Id);
+        assertThat(ingredients).map(Ingredient::getId)
+            .containsExactlyInAnyOrder(ingredient1Id, ingredient2Id);
+        assertThat(cacheGets("hit") - hitsBefore).isEqualTo(1);
+        assertThat(cacheGets("miss") - missesBefore).isEqualTo(1);
     }
 
     @Test
-    @WithMockUser(username = "user", password = "user")
-    public void givenLiked_whenSearch_thenLikedArePromoted() {
+    public void givenCachedIngredients_whenAddIngredient_thenCachedIngredientsAreKept() {
         // Given
-        final Ingredient ingredient1 = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURKA DLA MAMY").build());
-        final Ingredient ingredient2 = ingredientService.addIngredient(
-            Ingredient.builder().name("SULFUR").build());
-        final Ingredient ingredient3 = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURYL SULFATE").build());
-        final Ingredient ingredient4 = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURYL SULFIDE").build());
-
-        String query = "LAU SUL";
-        ingredientService.likeIngredient(ingredient4, user);
+        final Long ingredientId = ingredientService.addIngredient(
+            Ingredient.builder().name("CACHED AQUA").build()).getId();
+        ingredientService.getIngredientById(ingredientId);
 
         // When
-        List<Ingredient> ingredients =
-            ingredientService.getIngredients(10, query, user, true);
+        final Long addedIngredientId = ingredientService.addIngredient(
+            Ingredient.builder().name("CACHED GLYCERIN").build()).getId();
+        double hitsBefore = cacheGets("hit");
+        ingredientService.getIngredientById(ingredientId);
+        Ingredient addedIngredient = ingredientService.getIngredientById(addedIngredientId);
 
         // Then
-        assertThat(ingredients.size()).isEqualTo(4);
-        assertThat(ingredients.getFirst().getId()).isEqualTo(ingredient4.getId());
-        assertThat(ingredients).map(Ingredient::getId).containsAll(
-            List.of(ingredient1.getId(), ingredient2.getId(), ingredient3.getId(),
-                ingredient4.getId())
-        );
+        assertThat(cacheGets("hit") - hitsBefore).isEqualTo(1);
+        assertThat(addedIngredient.getName()).isEqualTo("CACHED GLYCERIN");
     }
 
-    @Test
-    @WithMockUser(username = "user", password = "user")
-    public void givenAllergens_whenSearch_thenAllergensAreSkipped() {
-        // Given
-        final Ingredient ingredient1 = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURKA DLA MAMY").build());
-        final Ingredient ingredient2 = ingredientService.addIngredient(
-            Ingredient.builder().name("SULFUR").build());
-        final Ingredient ingredient3 = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURYL SULFATE").build());
-        final Ingredient ingredient4 = ingredientService.addIngredient(
-            Ingredient.builder().name("LAURYL SULFIDE").build());
+    // The search tests are run against both the engines
+    abstract class SearchTests {
+        private IngredientService ingredientServiceTarget;
+
+        abstract IngredientSearchEngine getSearchEngine();
+
+        @BeforeEach
+        void setupSearchEngine() {
+            ingredientServiceTarget = AopTestUtils.getTargetObject(ingredientService);
+            ReflectionTestUtils.setField(ingredientServiceTarget, "searchEngine",
+                getSearchEngine());
+        }
+
+        @AfterEach
+        void restoreSearchEngine() {
+            ReflectionTestUtils.setField(ingredientServiceTarget, "searchEngine",
+                IngredientSearchEngine.MEMORY);
+        }
+
+        @Test
+        public void givenQuery_whenSearch_thenCorrectResult() {
+            // Given
+            final Long ingredient1Id = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURKA DLA MAMY").build()).getId();
+            final Long ingredient2Id = ingredientService.addIngredient(
+                Ingredient.builder().name("SULFUR").build()).getId();
+            final Long ingredient3Id = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURYL SULFATE").build()).getId();
+            final Long ingredient4Id = ingredientService.addIngredient(
+                Ingredient.builder().name("KLAU FSUL").build()).getId();
+            final Long ingredient5Id = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURYL SULFIDE").build()).getId();
+
+            String query = "LAU SUL";
+
+            // When
+            List<Ingredient> ingredients = ingredientService.getIngredients(10, query);
+
+            // Then
+            assertThat(ingredients.size()).isEqualTo(4);
+            assertThat(ingredients.getFirst().getId()).isEqualTo(ingredient3Id);
+            assertThat(ingredients).map(Ingredient::getId).containsAll(
+                List.of(ingredient1Id, ingredient2Id, ingredient3Id, ingredient5Id)
+            );
+            assertThat(ingredients).map(Ingredient::getId).doesNotContain(ingredient4Id);
+        }
+
+        @Test
+        public void givenQueryWithRegexCharacters_whenSearch_thenTokensAreMatchedLiterally() {
+            // Given
+            final Long ingredient1Id = ingredientService.addIngredient(
+                Ingredient.builder().name("ACID (CITRIC)").build()).getId();
+            final Long ingredient2Id = ingredientService.addIngredient(
+                Ingredient.builder().name("ACID CITRIC").build()).getId();
+
+            String query = "(CIT";
+
+            // When
+            List<Ingredient> ingredients = ingredientService.getIngredients(10, query);
+
+            // Then
+            assertThat(ingredients).map(Ingredient::getId).contains(ingredient1Id);
+            assertThat(ingredients).map(Ingredient::getId).doesNotContain(ingredient2Id);
+        }
+
+        @Test
+        @WithMockUser(username = "user", password = "user")
+        public void givenLiked_whenSearch_thenLikedArePromoted() {
+            // Given
+            final Ingredient ingredient1 = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURKA DLA MAMY").build());
+            final Ingredient ingredient2 = ingredientService.addIngredient(
+                Ingredient.builder().name("SULFUR").build());
+            final Ingredient ingredient3 = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURYL SULFATE").build());
+            final Ingredient ingredient4 = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURYL SULFIDE").build());
+
+            String query = "LAU SUL";
+            ingredientService.likeIngredient(ingredient4, user);
+
+            // When
+            List<Ingredient> ingredients =
+                ingredientService.getIngredients(10, query, user, true);
+
+            // Then
+            assertThat(ingredients.size()).isEqualTo(4);
+            assertThat(ingredients.getFirst().getId()).isEqualTo(ingredient4.getId());
+            assertThat(ingredients).map(Ingredient::getId).containsAll(
+                List.of(ingredient1.getId(), ingredient2.getId(), ingredient3.getId(),
+                    ingredient4.getId())
+            );
+        }
+
+        @Test
+        @WithMockUser(username = "user", password = "user")
+        public void givenSearchedAfterLike_whenUnlikeIngredient_thenItIsNoLongerPromoted() {
+            // Given
+            final Ingredient ingredient1 = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURYL SULFATE").build());
+            final Ingredient ingredient2 = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURYL SULFIDE").build());
+
+            String query = "LAURYL SULF";
+            ingredientService.likeIngredient(ingredient2, user);
+            assertThat(ingredientService.getIngredients(10, query, user, true).getFirst().getId())
+                .isEqualTo(ingredient2.getId());
+
+            // When
+            ingredientService.unlikeIngredient(ingredient2, user);
+            List<Ingredient> ingredients =
+                ingredientService.getIngredients(10, query, user, true);
+
+            // Then
+            assertThat(ingredients.getFirst().getId()).isEqualTo(ingredient1.getId());
+        }
+
+        @Test
+        @WithMockUser(username = "user", password = "user")
+        public void givenAllergens_whenSearch_thenAllergensAreSkipped() {
+            // Given
+            final Ingredient ingredient1 = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURKA DLA MAMY").build());
+            final Ingredient ingredient2 = ingredientService.addIngredient(
+                Ingredient.builder().name("SULFUR").build());
+            final Ingredient ingredient3 = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURYL SULFATE").build());
+            final Ingredient ingredient4 = ingredientService.addIngredient(
+                Ingredient.builder().name("LAURYL SULFIDE").build());
+
+            String query = "LAU SUL";
+            ingredientService.addAllergen(ingredient3, user);
+
+            // When
+            List<Ingredient> ingredients =
+                ingredientService.getIngredients(10, query, user, true);
+
+            // Then
+            assertThat(ingredients.size()).isEqualTo(3);
+            assertThat(ingredients).map(Ingredient::getId).doesNotContain(ingredient3.getId());
+            assertThat(ingredients).map(Ingredient::getId).containsAll(
+                List.of(ingredient1.getId(), ingredient2.getId(), ingredient4.getId())
+            );
+        }
+    }
 
-        String query = "LAU SUL";
-        ingredientService.addAllergen(ingredient3, user);
+    @Nested
+    @Transactional
+    class DatabaseSearchTests extends SearchTests {
+        @Override
+        IngredientSearchEngine getSearchEngine() {
+            return IngredientSearchEngine.DATABASE;
+        }
+    }
 
-        // When
-        List<Ingredient> ingredients =
-            ingredientService.getIngredients(10, query, user, true);
+    @Nested
+    @Transactional
+    class MemorySearchTests extends SearchTests {
+        @Override
+        IngredientSearchEngine getSearchEngine() {
+            return IngredientSearchEngine.MEMORY;
+        }
+    }
 
-        // Then
-        assertThat(ingredients.size()).isEqualTo(3);
-        assertThat(ingredients).map(Ingredient::getId).doesNotContain(ingredient3.getId());
-        assertThat(ingredients).map(Ingredient::getId).containsAll(
-            List.of(ingredient1.getId(), ingredient2.getId(), ingredient4.getId())
-        );
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+            .tags("cache", "ingredients", "result", result)
+            .functionCounter()
+            .count();
     }
 }
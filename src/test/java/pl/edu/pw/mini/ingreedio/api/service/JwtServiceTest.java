@@ -50,6 +50,21 @@ public class JwtServiceTest {
         assertNotNull(token);
     }
 
+    @Test
+    void givenUserClaims_whenVerifyingToken_thenSameClaimsShouldBeReturned() {
+        // Given
+        JwtUserClaims jwtUserClaimsDto = JwtUserClaims.builder().username("testUser")
+            .roles(Set.of("MODERATOR", "USER")).permissions(Set.of("CAN_REMOVE_OPINION"))
+            .userId(42L).revocationVersion(3L).build();
+        String token = jwtService.generateToken(jwtUserClaimsDto);
+
+        // When
+        JwtUserClaims claims = jwtService.verify(token).claims();
+
+        // Then
+        assertEquals(jwtUserClaimsDto, claims);
+    }
+
     @Test
     void givenValidToken_whenExtractingUsername_thenUsernameShouldBeReturned() {
         // Given
@@ -0,0 +1,52 @@
+package pl.edu.pw.mini.ingreedio.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.edu.pw.mini.ingreedio.api.common.util.ModelPatcher;
+import pl.edu.pw.mini.ingreedio.api.product.model.BrandDocument;
+import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
+
+public class ModelPatcherTest {
+    ModelPatcher<ProductDocument> modelPatcher;
+
+    @BeforeEach
+    void setUp() {
+        modelPatcher = new ModelPatcher<>();
+    }
+
+    @Test
+    void givenPatch_whenPatchingAndExcludingFields_thenOnlyNonNullFieldsArePatched() {
+        // Given
+        ProductDocument target = ProductDocument.builder().id(1L).name("Name")
+            .shortDescription("Short description").rating(3).build();
+        ProductDocument patch = ProductDocument.builder().id(2L).name("Patched name").build();
+
+        // When
+        modelPatcher.patchAndExcludeFields(target, patch, Set.of("id"));
+
+        // Then
+        assertThat(target.getId()).isEqualTo(1L);
+        assertThat(target.getName()).isEqualTo("Patched name");
+        assertThat(target.getShortDescription()).isEqualTo("Short description");
+        assertThat(target.getRating()).isEqualTo(3);
+    }
+
+    @Test
+    void givenNestedPatch_whenPatchingNestedFields_thenNestedFieldsArePatched() {
+        // Given
+        ProductDocument target = ProductDocument.builder().id(1L)
+            .brand(BrandDocument.builder().id(2L).name("Brand").build()).build();
+        ProductDocument patch = ProductDocument.builder()
+            .brand(BrandDocument.builder().name("Patched brand").build()).build();
+
+        // When
+        modelPatcher.patchAndExcludeFields(target, patch, Set.of("id"), Set.of("brand"));
+
+        // Then
+        assertThat(target.getBrand().getId()).isEqualTo(2L);
+        assertThat(target.getBrand().getName()).isEqualTo("Patched brand");
+    }
+}
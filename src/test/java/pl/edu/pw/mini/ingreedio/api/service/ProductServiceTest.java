@@ -5,6 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -15,21 +18,36 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 import pl.edu.pw.mini.ingreedio.api.IntegrationTest;
 import pl.edu.pw.mini.ingreedio.api.product.criteria.ProductCriteria;
+import pl.edu.pw.mini.ingreedio.api.product.event.ProductChangedEvent;
+import pl.edu.pw.mini.ingreedio.api.product.event.ProductDeletedEvent;
+import pl.edu.pw.mini.ingreedio.api.product.exception.InvalidCursorException;
 import pl.edu.pw.mini.ingreedio.api.product.exception.ProductNotFoundException;
 import pl.edu.pw.mini.ingreedio.api.product.model.BrandDocument;
 import pl.edu.pw.mini.ingreedio.api.product.model.CategoryDocument;
 import pl.edu.pw.mini.ingreedio.api.product.model.IngredientDocument;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProviderDocument;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CappedPage;
+import pl.edu.pw.mini.ingreedio.api.product.repository.CustomizedProductRepository;
 import pl.edu.pw.mini.ingreedio.api.product.repository.ProductRepository;
+import pl.edu.pw.mini.ingreedio.api.product.repository.impl.CustomizedProductRepositoryImpl;
+import pl.edu.pw.mini.ingreedio.api.product.repository.impl.LuceneProductRepository;
+import pl.edu.pw.mini.ingreedio.api.product.repository.impl.ProductPhraseEngine;
+import pl.edu.pw.mini.ingreedio.api.product.repository.impl.ProductSearchStrategy;
+import pl.edu.pw.mini.ingreedio.api.product.service.PaginationService;
 import pl.edu.pw.mini.ingreedio.api.product.service.ProductCriteriaService;
 import pl.edu.pw.mini.ingreedio.api.product.service.ProductService;
 import pl.edu.pw.mini.ingreedio.api.review.dto.ReviewDto;
 import pl.edu.pw.mini.ingreedio.api.review.model.Review;
+import pl.edu.pw.mini.ingreedio.api.review.service.ReviewService;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
 import pl.edu.pw.mini.ingreedio.api.user.service.UserService;
 
@@ -44,9 +62,21 @@ public class ProductServiceTest extends IntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private CustomizedProductRepositoryImpl customizedProductRepositoryBean;
+
+    @Autowired
+    private PaginationService paginationService;
+
     private User user;
 
     @BeforeEach
@@ -77,6 +107,22 @@ public class ProductServiceTest extends IntegrationTest {
             assertThat(savedProduct).isNotNull();
         }
 
+        @Test
+        public void givenProductObject_whenSaveProduct_thenCountersAreZero() {
+            // Given
+            ProductDocument product = ProductDocument.builder().name("testProduct").build();
+
+            // When
+            long productId = productService.addProduct(product).getId();
+            ProductDocument savedProduct = productService.getProductById(productId);
+
+            // Then
+            assertThat(savedProduct.getRatingSum()).isZero();
+            assertThat(savedProduct.getRateCount()).isZero();
+            assertThat(savedProduct.getOpinionsCount()).isZero();
+            assertThat(savedProduct.getLikesCount()).isZero();
+        }
+
         @Test
         public void givenProductsList_whenGetAllProducts_thenReturnProductsList() {
             // Given
@@ -133,7 +179,7 @@ public class ProductServiceTest extends IntegrationTest {
         public void givenBrandsIncludeCriteria_whenFilter_thenReturnCorrectProducts() {
             // Given
             BrandDocument daglas = BrandDocument.builder().id(1L).name("daglas").build();
-            BrandDocument hit = BrandDocument.builder().id(1L).name("hit").build();
+            BrandDocument hit = BrandDocument.builder().id(3L).name("hit").build();
             BrandDocument nivea = BrandDocument.builder().id(2L).name("nivea").build();
             ProviderDocument daglasco =
                 ProviderDocument.builder().id(1L).name("daglas & co.").build();
@@ -144,7 +190,7 @@ public class ProductServiceTest extends IntegrationTest {
             productService.addProduct(ProductDocument.builder().provider(daglasco).build());
 
             var criteria = ProductCriteria.builder()
-                .brandsNamesToInclude(Set.of("daglas", "nivea")).build();
+                .brandsIdsToInclude(Set.of(1L, 2L)).build();
 
             // When
             Page<ProductDocument> page = productService.getProductsMatchingCriteria(
@@ -177,7 +223,7 @@ public class ProductServiceTest extends IntegrationTest {
                 .provider(daglasco).brand(daglas).build());
 
             var criteria = ProductCriteria.builder()
-                .brandsNamesToExclude(Set.of("adidas", "nivea")).build();
+                .brandsIdsToExclude(Set.of(3L, 2L)).build();
 
             // When
             Page<ProductDocument> page = productService.getProductsMatchingCriteria(
@@ -212,9 +258,9 @@ public class ProductServiceTest extends IntegrationTest {
                 .ingredients(Set.of(potato, beet)).build());
 
             var criteria1 = ProductCriteria.builder()
-                .ingredientsNamesToInclude(Set.of("potato", "beet")).build();
+                .ingredientsIdsToInclude(Set.of(1L, 3L)).build();
             var criteria2 = ProductCriteria.builder()
-                .ingredientsNamesToInclude(Set.of("potato")).build();
+                .ingredientsIdsToInclude(Set.of(1L)).build();
 
             // When
             Page<ProductDocument> potatoBeetPage =
@@ -263,11 +309,11 @@ public class ProductServiceTest extends IntegrationTest {
                 .ingredients(Set.of(potato, beet)).build());
 
             var criteria1 = ProductCriteria.builder()
-                .ingredientsNamesToExclude(Set.of("potato", "beet")).build();
+                .ingredientsIdsToExclude(Set.of(1L, 3L)).build();
             var criteria2 = ProductCriteria.builder()
-                .ingredientsNamesToExclude(Set.of("potato")).build();
+                .ingredientsIdsToExclude(Set.of(1L)).build();
             var criteria3 = ProductCriteria.builder()
-                .ingredientsNamesToExclude(Set.of("carrot", "tomato")).build();
+                .ingredientsIdsToExclude(Set.of(2L, 4L)).build();
 
             // When
             Page<ProductDocument> potatoBeetPage = productService
@@ -326,8 +372,8 @@ public class ProductServiceTest extends IntegrationTest {
                 .ingredients(Set.of(potato, beet)).rating(10).build());
 
             var criteria = ProductCriteria.builder()
-                .ingredientsNamesToInclude(Set.of("potato"))
-                .ingredientsNamesToExclude(Set.of("carrot", "tomato"))
+                .ingredientsIdsToInclude(Set.of(1L))
+                .ingredientsIdsToExclude(Set.of(2L, 4L))
                 .minRating(7)
                 .build();
 
@@ -432,9 +478,9 @@ public class ProductServiceTest extends IntegrationTest {
                     .build());
 
             var criteria = ProductCriteria.builder()
-                .brandsNamesToInclude(Set.of("nivea"))
-                .providersNames(Set.of("żapka"))
-                .ingredientsNamesToInclude(Set.of("metanol"))
+                .brandsIdsToInclude(Set.of(1L))
+                .providersIds(Set.of(1L))
+                .ingredientsIdsToInclude(Set.of(6L))
                 .build();
 
             // When
@@ -592,7 +638,7 @@ public class ProductServiceTest extends IntegrationTest {
             productService.likeProduct(product2.getId(), user);
 
             Page<ProductDocument> page = productService.getProductsMatchingCriteria(
-                ProductCriteria.builder().build(), PageRequest.of(0, 30));
+                ProductCriteria.builder().userId(user.getId()).build(), PageRequest.of(0, 30));
             List<ProductDocument> products = page.getContent();
 
             // Then
@@ -615,6 +661,71 @@ public class ProductServiceTest extends IntegrationTest {
             // Then
             assertThat(productService.isProductLikedByUser(p, user)).isTrue();
         }
+
+        @Test
+        public void givenLikedProduct_whenSearch_thenOnlyListViewFieldsAreFetched() {
+            // Given
+            ProductDocument product = productService.addProduct(ProductDocument.builder()
+                .name("likedProduct")
+                .largeImageUrl("largeImageUrl")
+                .longDescription("longDescription")
+                .build());
+            User user = ProductServiceTest.this.user;
+            productService.likeProduct(product.getId(), user);
+            product.setLikedBy(Set.of(user.getId(), user.getId() + 1, user.getId() + 2));
+            productService.updateProduct(product);
+
+            // When
+            List<ProductDocument> userProducts = productService.getProductsMatchingCriteria(
+                ProductCriteria.builder().userId(user.getId()).build(), PageRequest.of(0, 30))
+                .getContent();
+            List<ProductDocument> anonymousProducts = productService.getProductsMatchingCriteria(
+                ProductCriteria.builder().build(), PageRequest.of(0, 30))
+                .getContent();
+
+            // Then
+            assertThat(userProducts).hasSize(1);
+            assertThat(userProducts.getFirst().getName()).isEqualTo("likedProduct");
+            assertThat(userProducts.getFirst().getLargeImageUrl()).isNull();
+            assertThat(userProducts.getFirst().getLongDescription()).isNull();
+            assertThat(userProducts.getFirst().getLikedBy()).containsExactly(user.getId());
+            assertThat(anonymousProducts.getFirst().getLikedBy()).isEmpty();
+        }
+
+        @Test
+        public void givenProduct_whenLikeProductTwice_thenLikesCountIsIncrementedOnce() {
+            // Given
+            ProductDocument product = productService
+                .addProduct(ProductDocument.builder().name("likedProduct").build());
+            User user = ProductServiceTest.this.user;
+
+            // When
+            productService.likeProduct(product.getId(), user);
+            productService.likeProduct(product.getId(), user);
+            ProductDocument likedProduct = productService.getProductById(product.getId());
+
+            // Then
+            assertThat(likedProduct.getLikedBy()).containsExactly(user.getId());
+            assertThat(likedProduct.getLikesCount()).isEqualTo(1);
+        }
+
+        @Test
+        public void givenLikedProduct_whenUnlikeProductTwice_thenLikesCountIsDecrementedOnce() {
+            // Given
+            ProductDocument product = productService
+                .addProduct(ProductDocument.builder().name("likedProduct").build());
+            User user = ProductServiceTest.this.user;
+            productService.likeProduct(product.getId(), user);
+
+            // When
+            productService.unlikeProduct(product.getId(), user);
+            productService.unlikeProduct(product.getId(), user);
+            ProductDocument unlikedProduct = productService.getProductById(product.getId());
+
+            // Then
+            assertThat(unlikedProduct.getLikedBy()).isEmpty();
+            assertThat(unlikedProduct.getLikesCount()).isEqualTo(0);
+        }
     }
 
     @Nested
@@ -710,6 +821,31 @@ public class ProductServiceTest extends IntegrationTest {
                 () -> productService.updateProduct(productPatch));
         }
 
+        @Test
+        public void givenLikedProduct_whenPatchProduct_thenLikesAreKept() {
+            // Given
+            ProductDocument product = productService.addProduct(ProductDocument.builder()
+                .name("likedProduct")
+                .volume("oldVolume")
+                .build());
+            User user = ProductServiceTest.this.user;
+            productService.likeProduct(product.getId(), user);
+
+            ProductDocument productPatch = ProductDocument.builder()
+                .id(product.getId())
+                .name("patchedProduct")
+                .build();
+
+            // When
+            ProductDocument patchedProduct = productService.updateProduct(productPatch);
+
+            // Then
+            assertThat(patchedProduct.getName()).isEqualTo("patchedProduct");
+            assertThat(patchedProduct.getVolume()).isEqualTo("oldVolume");
+            assertThat(patchedProduct.getLikedBy()).containsExactly(user.getId());
+            assertThat(patchedProduct.getLikesCount()).isEqualTo(1);
+        }
+
         @Test
         public void givenProductId_whenDeleteProduct_thenProductIsDeleted() {
             // Given
@@ -924,6 +1060,48 @@ public class ProductServiceTest extends IntegrationTest {
             assertThat(reviewsDeleted.get().size()).isEqualTo(0);
         }
 
+        @Test
+        @WithMockUser(username = "user", password = "user")
+        public void givenProductId_whenAddEditAndDeleteReview_thenRatingCountersAreUpdated() {
+            // Given
+            ProductDocument product = productService
+                .addProduct(ProductDocument.builder().name("testProduct").build());
+            Review review = Review.builder()
+                .productId(product.getId())
+                .content("")
+                .rating(4)
+                .build();
+            Review editedReview = Review.builder()
+                .productId(product.getId())
+                .content("edited")
+                .rating(7)
+                .build();
+
+            // When
+            productService.addReview(review);
+            ProductDocument reviewedProduct = productService.getProductById(product.getId());
+            productService.editReview(editedReview);
+            ProductDocument editedProduct = productService.getProductById(product.getId());
+            productService.deleteReview(product.getId());
+            ProductDocument unreviewedProduct = productService.getProductById(product.getId());
+
+            // Then
+            assertThat(reviewedProduct.getRating()).isEqualTo(4);
+            assertThat(reviewedProduct.getRatingSum()).isEqualTo(4);
+            assertThat(reviewedProduct.getRateCount()).isEqualTo(1);
+            assertThat(reviewedProduct.getOpinionsCount()).isEqualTo(0);
+
+            assertThat(editedProduct.getRating()).isEqualTo(7);
+            assertThat(editedProduct.getRatingSum()).isEqualTo(7);
+            assertThat(editedProduct.getRateCount()).isEqualTo(1);
+            assertThat(editedProduct.getOpinionsCount()).isEqualTo(1);
+
+            assertThat(unreviewedProduct.getRating()).isEqualTo(0);
+            assertThat(unreviewedProduct.getRatingSum()).isEqualTo(0);
+            assertThat(unreviewedProduct.getRateCount()).isEqualTo(0);
+            assertThat(unreviewedProduct.getOpinionsCount()).isEqualTo(0);
+        }
+
         @Test
         @WithMockUser(username = "user", password = "user")
         public void givenProductId_whenGetProductUserReview_getProductUserReview() {
@@ -962,5 +1140,458 @@ public class ProductServiceTest extends IntegrationTest {
             // Then
             assertThat(productUserReview.isPresent()).isFalse();
         }
+
+        @Test
+        @WithMockUser(username = "user", password = "user")
+        public void givenReviews_whenGetProductReviewsPage_thenUserReviewIsFirstWithVotes() {
+            // Given
+            ProductDocument product = productService
+                .addProduct(ProductDocument.builder().name("testProduct").build());
+            User moderator = userService.getUserByUsername("mod");
+            ReviewDto moderatorReview = reviewService.addReview(moderator, Review.builder()
+                .user(moderator)
+                .productId(product.getId())
+                .content("moderatorReview")
+                .rating(3)
+                .build()).orElseThrow();
+            productService.addReview(Review.builder()
+                .productId(product.getId())
+                .content("userReview")
+                .rating(5)
+                .build());
+            reviewService.likeReview(moderatorReview.reviewId());
+
+            // When
+            Page<ReviewDto> firstPage = productService
+                .getProductReviews(product.getId(), user, PageRequest.of(0, 1));
+            Page<ReviewDto> secondPage = productService
+                .getProductReviews(product.getId(), user, PageRequest.of(1, 1));
+
+            // Then
+            assertThat(firstPage.getTotalElements()).isEqualTo(2);
+            assertThat(firstPage.getContent()).hasSize(1);
+            assertThat(firstPage.getContent().getFirst().content()).isEqualTo("userReview");
+            assertThat(firstPage.getContent().getFirst().isCurrentUser()).isTrue();
+            assertThat(secondPage.getContent()).hasSize(1);
+            assertThat(secondPage.getContent().getFirst().content()).isEqualTo("moderatorReview");
+            assertThat(secondPage.getContent().getFirst().displayName()).isEqualTo("Moderator");
+            assertThat(secondPage.getContent().getFirst().isCurrentUser()).isFalse();
+            assertThat(secondPage.getContent().getFirst().likesCount()).isEqualTo(1);
+            assertThat(secondPage.getContent().getFirst().dislikesCount()).isEqualTo(0);
+            assertThat(secondPage.getContent().getFirst().isLiked()).isTrue();
+            assertThat(secondPage.getContent().getFirst().isDisliked()).isFalse();
+        }
+
+        @Test
+        @WithMockUser(username = "user", password = "user")
+        public void givenLikedReview_whenDislikeReviewTwice_thenVotesAreCountedOnce() {
+            // Given
+            ProductDocument product = productService
+                .addProduct(ProductDocument.builder().name("testProduct").build());
+            ReviewDto review = productService.addReview(Review.builder()
+                .productId(product.getId())
+                .content("userReview")
+                .rating(5)
+                .build()).orElseThrow();
+            reviewService.likeReview(review.reviewId());
+
+            // When
+            reviewService.dislikeReview(review.reviewId());
+            reviewService.dislikeReview(review.reviewId());
+            List<ReviewDto> reviews = productService.getProductReviews(product.getId()).get();
+
+            // Then
+            assertThat(reviews).hasSize(1);
+            assertThat(reviews.getFirst().likesCount()).isEqualTo(0);
+            assertThat(reviews.getFirst().dislikesCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @Transactional
+    class SearchStrategyTests {
+        private CustomizedProductRepositoryImpl customizedProductRepository;
+
+        @BeforeEach
+        void setupRepository() {
+            customizedProductRepository = AopTestUtils
+                .getTargetObject(customizedProductRepositoryBean);
+        }
+
+        @AfterEach
+        void restoreRepository() {
+            ReflectionTestUtils.setField(customizedProductRepository, "searchStrategy",
+                ProductSearchStrategy.FACET);
+            ReflectionTestUtils.setField(customizedProductRepository, "countLimit", 0L);
+        }
+
+        private CappedPage<ProductDocument> search(ProductSearchStrategy strategy,
+                                                   ProductCriteria criteria,
+                                                   PageRequest pageRequest) {
+            ReflectionTestUtils.setField(customizedProductRepository, "searchStrategy",
+                strategy);
+            return productService.getProductsMatchingCriteria(criteria, pageRequest);
+        }
+
+        @Test
+        public void givenCriteria_whenSearchWithBothStrategies_thenReturnSameResults() {
+            // Given
+            BrandDocument nivea = BrandDocument.builder().id(1L).name("nivea").build();
+            BrandDocument hit = BrandDocument.builder().id(2L).name("hit").build();
+
+            for (int i = 0; i < 7; i++) {
+                productService.addProduct(ProductDocument.builder()
+                    .name("cream " + i)
+                    .brand(i % 2 == 0 ? nivea : hit)
+                    .rating(i)
+                    .build());
+            }
+
+            List<ProductCriteria> criteriaList = List.of(
+                ProductCriteria.builder().build(),
+                ProductCriteria.builder().brandsIdsToInclude(Set.of(1L)).build(),
+                ProductCriteria.builder().minRating(3).build(),
+                ProductCriteria.builder().phraseKeywords(Set.of("cream")).build(),
+                ProductCriteria.builder().brandsIdsToInclude(Set.of(3L)).build()
+            );
+
+            for (ProductCriteria criteria : criteriaList) {
+                for (int pageNumber = 0; pageNumber < 3; pageNumber++) {
+                    PageRequest pageRequest = PageRequest.of(pageNumber, 3);
+
+                    // When
+                    CappedPage<ProductDocument> twoQueryPage =
+                        search(ProductSearchStrategy.TWO_QUERY, criteria, pageRequest);
+                    CappedPage<ProductDocument> facetPage =
+                        search(ProductSearchStrategy.FACET, criteria, pageRequest);
+
+                    // Then
+                    assertThat(facetPage.getTotalElements())
+                        .isEqualTo(twoQueryPage.getTotalElements());
+                    assertThat(facetPage.getTotalPages())
+                        .isEqualTo(twoQueryPage.getTotalPages());
+                    assertThat(facetPage.getContent().stream().map(ProductDocument::getId))
+                        .containsExactlyInAnyOrderElementsOf(twoQueryPage.getContent()
+                            .stream().map(ProductDocument::getId).toList());
+                    assertThat(facetPage.isTotalCapped()).isFalse();
+                }
+            }
+        }
+
+        @Test
+        public void givenCountLimit_whenSearchWithFacet_thenReturnCappedTotal() {
+            // Given
+            for (int i = 0; i < 5; i++) {
+                productService.addProduct(ProductDocument.builder()
+                    .name("soap " + i).rating(5).build());
+            }
+            ReflectionTestUtils.setField(customizedProductRepository, "countLimit", 3L);
+
+            // When
+            CappedPage<ProductDocument> cappedPage = search(ProductSearchStrategy.FACET,
+                ProductCriteria.builder().minRating(5).build(), PageRequest.of(0, 2));
+            CappedPage<ProductDocument> exactPage = search(ProductSearchStrategy.FACET,
+                ProductCriteria.builder().phraseKeywords(Set.of("soap 1")).build(),
+                PageRequest.of(0, 2));
+
+            // Then
+            assertThat(cappedPage.isTotalCapped()).isTrue();
+            assertThat(cappedPage.getTotalElements()).isEqualTo(3);
+            assertThat(cappedPage.getContent().size()).isEqualTo(2);
+            assertThat(exactPage.isTotalCapped()).isFalse();
+            assertThat(exactPage.getTotalElements()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @Transactional
+    class KeysetPaginationTests {
+        @Test
+        public void givenCursor_whenScrollThroughProducts_thenReturnProductsInPageOrder() {
+            // Given
+            Integer[] ratings = {3, null, 5, 3, null, 1, 3, 5};
+            for (int i = 0; i < ratings.length; i++) {
+                productService.addProduct(ProductDocument.builder()
+                    .name("product " + i).rating(ratings[i]).build());
+            }
+
+            var criteria = ProductCriteria.builder()
+                .sortingCriteria(List.of(
+                    productCriteriaService.getProductsSortingCriteria("d-rating")))
+                .build();
+
+            List<Long> pagedIds = productService
+                .getProductsMatchingCriteria(criteria, PageRequest.of(0, ratings.length))
+                .getContent().stream().map(ProductDocument::getId).toList();
+
+            // When
+            List<Long> scrolledIds = new ArrayList<>();
+            Optional<String> cursor = Optional.of("");
+            int windows = 0;
+            while (cursor.isPresent()) {
+                Window<ProductDocument> window = productService.getProductsMatchingCriteria(
+                    criteria, paginationService.getScrollPosition(cursor.get()), 3);
+                window.forEach(product -> scrolledIds.add(product.getId()));
+                cursor = paginationService.getNextCursor(window);
+                windows++;
+            }
+
+            // Then
+            assertThat(windows).isEqualTo(3);
+            assertThat(scrolledIds).containsExactlyElementsOf(pagedIds);
+            assertThat(scrolledIds).hasSize(ratings.length);
+        }
+
+        @Test
+        public void givenMalformedCursor_whenGetScrollPosition_thenThrowException() {
+            // Given
+            String notBase64 = "%%%";
+            String operatorInjection = Base64.getUrlEncoder().encodeToString(
+                "{\"rating\": {\"$gt\": 0}}".getBytes(StandardCharsets.UTF_8));
+
+            // When & Then
+            assertThrows(InvalidCursorException.class,
+                () -> paginationService.getScrollPosition(notBase64));
+            assertThrows(InvalidCursorException.class,
+                () -> paginationService.getScrollPosition(operatorInjection));
+        }
+    }
+
+    @Nested
+    @Transactional
+    class PhraseEngineTests {
+        private CustomizedProductRepositoryImpl customizedProductRepository;
+
+        @BeforeEach
+        void setupRepository() {
+            customizedProductRepository = AopTestUtils
+                .getTargetObject(customizedProductRepositoryBean);
+        }
+
+        @AfterEach
+        void restoreRepository() {
+            ReflectionTestUtils.setField(customizedProductRepository, "phraseEngine",
+                ProductPhraseEngine.REGEX);
+        }
+
+        private List<String> searchNames(ProductPhraseEngine engine, ProductCriteria criteria) {
+            ReflectionTestUtils.setField(customizedProductRepository, "phraseEngine", engine);
+            return productService.getProductsMatchingCriteria(criteria, PageRequest.of(0, 30))
+                .getContent().stream().map(ProductDocument::getName).toList();
+        }
+
+        @Test
+        public void givenWholeWordKeywords_whenSearchWithBothEngines_thenReturnSameProducts() {
+            // Given
+            BrandDocument nivea = BrandDocument.builder().id(1L).name("Nivea").build();
+            productService.addProduct(ProductDocument.builder().name("Almette")
+                .shortDescription("serek kremowy").build());
+            productService.addProduct(ProductDocument.builder().name("Krem do rąk")
+                .brand(nivea).build());
+            productService.addProduct(ProductDocument.builder().name("Szampon")
+                .shortDescription("do włosów").build());
+
+            var criteria = ProductCriteria.builder()
+                .phraseKeywords(Set.of("SEREK", "nivea"))
+                .build();
+
+            // When
+            List<String> regexNames = searchNames(ProductPhraseEngine.REGEX, criteria);
+            List<String> textNames = searchNames(ProductPhraseEngine.TEXT, criteria);
+
+            // Then
+            assertThat(regexNames).containsExactlyInAnyOrder("Almette", "Krem do rąk");
+            assertThat(textNames).containsExactlyInAnyOrderElementsOf(regexNames);
+        }
+
+        @Test
+        public void givenTextEngine_whenMatchSort_thenProductWithGreaterTextScoreIsFirst() {
+            // Given
+            BrandDocument krem = BrandDocument.builder().id(1L).name("krem").build();
+            productService.addProduct(ProductDocument.builder().name("parmezan")
+                .shortDescription("krem").build());
+            productService.addProduct(ProductDocument.builder().name("krem")
+                .shortDescription("do stóp").build());
+            productService.addProduct(ProductDocument.builder().name("almette")
+                .brand(krem).build());
+
+            var criteria = ProductCriteria.builder()
+                .phraseKeywords(Set.of("krem"))
+                .hasMatchScoreSortCriteria(true)
+                .sortingCriteria(List.of(
+                    productCriteriaService.getProductsSortingCriteria("d-match-score")))
+                .build();
+
+            // When
+            List<String> names = searchNames(ProductPhraseEngine.TEXT, criteria);
+
+            // Then
+            assertThat(names).containsExactly("krem", "almette", "parmezan");
+        }
+    }
+
+    @Nested
+    @Transactional
+    class LuceneSearchTests {
+        private LuceneProductRepository luceneProductRepository;
+
+        @BeforeEach
+        void setupData() {
+            BrandDocument nivea = BrandDocument.builder().id(1L).name("nivea").build();
+            BrandDocument hit = BrandDocument.builder().id(2L).name("hit").build();
+            IngredientDocument water = IngredientDocument.builder().id(1L).name("water").build();
+            IngredientDocument alcohol = IngredientDocument.builder().id(2L)
+                .name("alcohol").build();
+
+            productService.addProduct(ProductDocument.builder().name("Krem nawilżający")
+                .brand(nivea).ingredients(Set.of(water)).rating(4).build());
+            productService.addProduct(ProductDocument.builder().name("Tonik")
+                .shortDescription("kremowa konsystencja").brand(hit)
+                .ingredients(Set.of(water, alcohol)).rating(2).build());
+            productService.addProduct(ProductDocument.builder().name("Szampon")
+                .brand(nivea).ingredients(Set.of(alcohol)).build());
+            productService.addProduct(ProductDocument.builder().name("Mydło")
+                .shortDescription("do rąk").rating(5).build());
+
+            luceneProductRepository = new LuceneProductRepository(productRepository,
+                mongoTemplate);
+            ReflectionTestUtils.invokeMethod(luceneProductRepository, "initIndex");
+        }
+
+        @AfterEach
+        void closeIndex() {
+            ReflectionTestUtils.invokeMethod(luceneProductRepository, "closeIndex");
+        }
+
+        private List<Long> searchIds(CustomizedProductRepository repository,
+                                     ProductCriteria criteria) {
+            return repository.getProductsMatchingCriteria(criteria, PageRequest.of(0, 10))
+                .getContent().stream().map(ProductDocument::getId).toList();
+        }
+
+        @Test
+        public void givenCriteria_whenSearchWithLucene_thenReturnSameProductsAsMongo() {
+            // Given
+            var ratingSorting = List.of(
+                productCriteriaService.getProductsSortingCriteria("d-rating"));
+
+            List<ProductCriteria> criteriaList = List.of(
+                ProductCriteria.builder().build(),
+                ProductCriteria.builder().brandsIdsToInclude(Set.of(1L)).build(),
+                ProductCriteria.builder().brandsIdsToExclude(Set.of(1L)).build(),
+                ProductCriteria.builder().ingredientsIdsToInclude(Set.of(1L)).build(),
+                ProductCriteria.builder().ingredientsIdsToExclude(Set.of(2L)).build(),
+                ProductCriteria.builder().minRating(3).sortingCriteria(ratingSorting).build(),
+                ProductCriteria.builder().sortingCriteria(ratingSorting).build(),
+                ProductCriteria.builder().phraseKeywords(Set.of("krem", "DO")).build()
+            );
+
+            for (ProductCriteria criteria : criteriaList) {
+                // When
+                List<Long> mongoIds = searchIds(productRepository, criteria);
+                List<Long> luceneIds = searchIds(luceneProductRepository, criteria);
+
+                // Then
+                assertThat(luceneIds).containsExactlyElementsOf(mongoIds);
+            }
+        }
+
+        @Test
+        public void givenPhrase_whenMatchSortWithLucene_thenFieldBoostsAreApplied() {
+            // Given
+            var criteria = ProductCriteria.builder()
+                .phraseKeywords(Set.of("krem"))
+                .hasMatchScoreSortCriteria(true)
+                .sortingCriteria(List.of(
+                    productCriteriaService.getProductsSortingCriteria("d-match-score")))
+                .build();
+
+            // When
+            CappedPage<ProductDocument> page = luceneProductRepository
+                .getProductsMatchingCriteria(criteria, PageRequest.of(0, 10));
+
+            // Then
+            assertThat(page.getTotalElements()).isEqualTo(2);
+            assertThat(page.getContent().stream().map(ProductDocument::getName))
+                .containsExactly("Krem nawilżający", "Tonik");
+        }
+
+        @Test
+        public void givenProductEvents_whenSearchWithLucene_thenIndexIsUpdated() {
+            // Given
+            ProductDocument product = productService.addProduct(ProductDocument.builder()
+                .name("Krem do stóp").build());
+            var criteria = ProductCriteria.builder().phraseKeywords(Set.of("stóp")).build();
+
+            // When
+            luceneProductRepository.onProductChanged(new ProductChangedEvent(product));
+            List<Long> idsAfterChange = searchIds(luceneProductRepository, criteria);
+
+            productService.deleteProductById(product.getId());
+            luceneProductRepository.onProductDeleted(new ProductDeletedEvent(product.getId()));
+            List<Long> idsAfterDelete = searchIds(luceneProductRepository, criteria);
+
+            // Then
+            assertThat(idsAfterChange).containsExactly(product.getId());
+            assertThat(idsAfterDelete).isEmpty();
+        }
+
+        @Test
+        public void givenLikedProduct_whenSearchWithLucene_thenOnlyListViewFieldsAreFetched() {
+            // Given
+            ProductDocument product = productService.addProduct(ProductDocument.builder()
+                .name("Krem do stóp")
+                .largeImageUrl("largeImageUrl")
+                .longDescription("longDescription")
+                .build());
+            productService.likeProduct(product.getId(), user);
+            product.setLikedBy(Set.of(user.getId(), user.getId() + 1, user.getId() + 2));
+            productService.updateProduct(product);
+            luceneProductRepository.onProductChanged(new ProductChangedEvent(product));
+
+            // When
+            List<ProductDocument> userProducts = luceneProductRepository
+                .getProductsMatchingCriteria(ProductCriteria.builder()
+                    .phraseKeywords(Set.of("stóp")).userId(user.getId()).build(),
+                    PageRequest.of(0, 10))
+                .getContent();
+            List<ProductDocument> anonymousProducts = luceneProductRepository
+                .getProductsMatchingCriteria(ProductCriteria.builder()
+                    .phraseKeywords(Set.of("stóp")).build(), PageRequest.of(0, 10))
+                .getContent();
+
+            // Then
+            assertThat(userProducts).hasSize(1);
+            assertThat(userProducts.getFirst().getName()).isEqualTo("Krem do stóp");
+            assertThat(userProducts.getFirst().getLargeImageUrl()).isNull();
+            assertThat(userProducts.getFirst().getLongDescription()).isNull();
+            assertThat(userProducts.getFirst().getLikedBy()).containsExactly(user.getId());
+            assertThat(anonymousProducts.getFirst().getLikedBy()).isEmpty();
+        }
+
+        @Test
+        public void givenCursor_whenScrollWithLucene_thenReturnProductsInPageOrder() {
+            // Given
+            var criteria = ProductCriteria.builder()
+                .sortingCriteria(List.of(
+                    productCriteriaService.getProductsSortingCriteria("a-rating")))
+                .build();
+            List<Long> pagedIds = searchIds(luceneProductRepository, criteria);
+
+            // When
+            List<Long> scrolledIds = new ArrayList<>();
+            Optional<String> cursor = Optional.of("");
+            while (cursor.isPresent()) {
+                Window<ProductDocument> window = luceneProductRepository
+                    .getProductsMatchingCriteria(criteria,
+                        paginationService.getScrollPosition(cursor.get()), 3);
+                window.forEach(product -> scrolledIds.add(product.getId()));
+                cursor = paginationService.getNextCursor(window);
+            }
+
+            // Then
+            assertThat(scrolledIds).hasSize(4);
+            assertThat(scrolledIds).containsExactlyElementsOf(pagedIds);
+        }
     }
 }
@@ -3,11 +3,24 @@ package pl.edu.pw.mini.ingreedio.api.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import pl.edu.pw.mini.ingreedio.api.IntegrationTest;
 import pl.edu.pw.mini.ingreedio.api.auth.service.AuthService;
 import pl.edu.pw.mini.ingreedio.api.product.model.ProductDocument;
@@ -15,6 +28,7 @@ import pl.edu.pw.mini.ingreedio.api.product.service.ProductService;
 import pl.edu.pw.mini.ingreedio.api.review.dto.ReviewDto;
 import pl.edu.pw.mini.ingreedio.api.review.exception.ReportEmptyReviewAttemptException;
 import pl.edu.pw.mini.ingreedio.api.review.model.Review;
+import pl.edu.pw.mini.ingreedio.api.review.repository.ReviewRepository;
 import pl.edu.pw.mini.ingreedio.api.review.service.ReportService;
 import pl.edu.pw.mini.ingreedio.api.review.service.ReviewService;
 import pl.edu.pw.mini.ingreedio.api.user.model.User;
@@ -37,6 +51,12 @@ public class ReviewReportServiceTest extends IntegrationTest {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Nested
     class ReportTest {
 
@@ -123,6 +143,35 @@ public class ReviewReportServiceTest extends IntegrationTest {
             assertThat(reviewDtoAfter.get().dislikesCount()).isEqualTo(dislikesCount);
         }
 
+        @Test
+        @WithMockUser(username = "user", password = "user", roles = {})
+        public void givenLikedReview_whenGetUserReviews_thenReviewIsLiked() {
+            // Given
+            ProductDocument product = productService
+                .addProduct(ProductDocument.builder().name("testProduct").build());
+            Review review = Review.builder()
+                .productId(product.getId())
+                .rating(5)
+                .content("testContent")
+                .build();
+            Optional<ReviewDto> reviewDto = productService.addReview(review);
+            assertThat(reviewDto).isPresent();
+            long reviewId = reviewDto.get().reviewId();
+            reviewService.likeReview(reviewId);
+            User user = userService.getUserByUsername("user");
+
+            // When
+            List<ReviewDto> reviews = reviewService.getUserReviews(user);
+
+            // Then
+            assertThat(reviews).hasSize(1);
+            assertThat(reviews.getFirst().reviewId()).isEqualTo(reviewId);
+            assertThat(reviews.getFirst().likesCount()).isEqualTo(1);
+            assertThat(reviews.getFirst().isLiked()).isTrue();
+            assertThat(reviews.getFirst().isDisliked()).isFalse();
+            assertThat(reviews.getFirst().isCurrentUser()).isTrue();
+        }
+
         @Test
         @WithMockUser(username = "user", password = "user", roles = {})
         public void givenReview_whenLikeUnlike_thenLikeCountIsConstant() {
@@ -313,5 +362,76 @@ public class ReviewReportServiceTest extends IntegrationTest {
             assertThat(reviewDtoAfter.get().likesCount()).isEqualTo(likesCount + 1);
             assertThat(reviewDtoAfter.get().dislikesCount()).isEqualTo(dislikesCount);
         }
+
+        @Test
+        public void givenReview_whenVotingConcurrently_thenVotesCountsMatchVotes()
+            throws Exception {
+            // Given
+            // The review is committed, so that it is visible to the voting threads
+            TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+            newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            long productId = 1000L;
+            long reviewId = newTransaction.execute(status -> {
+                User user = userService.getUserByUsername("user");
+                return reviewService.addReview(user, Review.builder()
+                    .user(user)
+                    .productId(productId)
+                    .rating(5)
+                    .content("")
+                    .build()).orElseThrow().reviewId();
+            });
+            String[] usernames = {"user", "mod"};
+            int threads = 8;
+            int votesPerThread = 25;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> results = new ArrayList<>();
+
+            // When
+            for (int i = 0; i < threads; i++) {
+                String username = usernames[i % usernames.length];
+                Random random = new Random(i);
+                results.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(username, null, List.of()));
+                    start.await();
+                    for (int j = 0; j < votesPerThread; j++) {
+                        switch (random.nextInt(4)) {
+                            case 0 -> reviewService.likeReview(reviewId);
+                            case 1 -> reviewService.unlikeReview(reviewId);
+                            case 2 -> reviewService.dislikeReview(reviewId);
+                            default -> reviewService.undislikeReview(reviewId);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            executor.shutdown();
+            executor.awaitTermination(60, TimeUnit.SECONDS);
+
+            // Then
+            try {
+                for (Future<Void> result : results) {
+                    result.get();
+                }
+
+                int likes = 0;
+                int dislikes = 0;
+                ReviewDto review = null;
+                for (String username : usernames) {
+                    review = reviewService.getProductReviews(productId,
+                        userService.getUserByUsername(username)).getFirst();
+                    assertThat(review.isLiked() && review.isDisliked()).isFalse();
+                    likes += review.isLiked() ? 1 : 0;
+                    dislikes += review.isDisliked() ? 1 : 0;
+                }
+                assertThat(review.likesCount()).isEqualTo(likes);
+                assertThat(review.dislikesCount()).isEqualTo(dislikes);
+            } finally {
+                newTransaction.executeWithoutResult(status ->
+                    reviewRepository.deleteById(reviewId));
+            }
+        }
     }
 }
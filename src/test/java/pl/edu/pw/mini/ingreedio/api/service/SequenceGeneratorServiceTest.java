@@ -0,0 +1,70 @@
+package pl.edu.pw.mini.ingreedio.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import pl.edu.pw.mini.ingreedio.api.IntegrationTest;
+import pl.edu.pw.mini.ingreedio.api.product.service.SequenceGeneratorService;
+
+public class SequenceGeneratorServiceTest extends IntegrationTest {
+    private static final String SEQUENCE_NAME = "test_sequence";
+
+    @Autowired
+    private SequenceGeneratorService sequenceGenerator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void givenConcurrentThreads_whenGenerateSequence_thenIdsAreUniqueAndReservedInBlocks()
+        throws Exception {
+        // Given
+        int threads = 8;
+        int idsPerThread = 50;
+        double reservedBlocks = reservedBlocks();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                List<Long> ids = new ArrayList<>();
+                for (int j = 0; j < idsPerThread; j++) {
+                    ids.add(sequenceGenerator.generateSequence(SEQUENCE_NAME));
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        // Then
+        Set<Long> ids = new HashSet<>();
+        for (Future<List<Long>> result : results) {
+            ids.addAll(result.get());
+        }
+        // The ids are reserved in blocks of 10, see the test application properties
+        assertThat(ids).hasSize(threads * idsPerThread);
+        assertThat(reservedBlocks() - reservedBlocks)
+            .isLessThanOrEqualTo(threads * idsPerThread / 10 + 1);
+    }
+
+    private double reservedBlocks() {
+        return meterRegistry.counter("sequence.blocks.reserved", "sequence", SEQUENCE_NAME)
+            .count();
+    }
+}